@@ -1,4 +1,7 @@
 #!/bin/bash
+
+. /usr/local/bin/mlog
+
 minfo "
 ---------------------------------------
    ___             _     _            
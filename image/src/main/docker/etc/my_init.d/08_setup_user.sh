@@ -1,5 +1,7 @@
 #!/bin/bash -e
 
+. /usr/local/bin/mlog
+
 PUID=${PUID:-911}
 PGID=${PGID:-911}
 PUSER=${PUSER:-system}
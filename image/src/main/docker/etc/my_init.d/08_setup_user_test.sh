@@ -1,5 +1,7 @@
 #!/bin/bash
 
+. /usr/local/bin/mlog
+
 mdebug "
 -------------------------------------
 User
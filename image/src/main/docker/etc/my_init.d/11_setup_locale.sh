@@ -1,5 +1,7 @@
 #!/usr/bin/env bash
 
+. /usr/local/bin/mlog
+
 mdebug "Setup locale and language"
 mdebug "LANG=${LANG}"
 
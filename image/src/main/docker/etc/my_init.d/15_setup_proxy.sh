@@ -1,5 +1,7 @@
 #!/bin/bash
 
+. /usr/local/bin/mlog
+
 source /usr/local/bin/yum-proxy
 
 # Если переменная установлена в пустое значение - то значит настраивать прокси не надо и выходим
@@ -0,0 +1,32 @@
+package com.github.javister.docker.testing;
+
+/**
+ * Поддержка необязательной интеграции с Allure.
+ *
+ * <p>Библиотека Allure не является обязательной зависимостью: вложения в отчёт добавляются, только если она есть
+ * в class path тестов.
+ */
+public final class AllureSupport {
+    private static final boolean AVAILABLE = detect();
+
+    private AllureSupport() {
+    }
+
+    /**
+     * Проверка наличия Allure в class path.
+     *
+     * @return true, если вложения можно добавлять в отчёт Allure.
+     */
+    public static boolean isAvailable() {
+        return AVAILABLE;
+    }
+
+    private static boolean detect() {
+        try {
+            Class<?> allureClass = AllureSupport.class.getClassLoader().loadClass("io.qameta.allure.Allure");
+            return allureClass != null;
+        } catch (ClassNotFoundException e) {
+            return false;
+        }
+    }
+}
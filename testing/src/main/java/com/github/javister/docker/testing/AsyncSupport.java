@@ -0,0 +1,156 @@
+package com.github.javister.docker.testing;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Поддержка асинхронного выполнения операций над контейнерами.
+ *
+ * <p>На JDK 21 и выше операции выполняются в виртуальных потоках, на более старых JDK - в ограниченном пуле
+ * daemon потоков. Возвращаемые фьючерсы поддерживают отмену с прерыванием выполняющего операцию потока.
+ */
+public final class AsyncSupport {
+    private static final int POOL_SIZE = Math.max(8, Runtime.getRuntime().availableProcessors() * 2);
+
+    private static final ExecutorService EXECUTOR = createExecutor();
+    private static final ScheduledExecutorService TIMER =
+            Executors.newSingleThreadScheduledExecutor(daemonThreadFactory("javister-async-timer"));
+
+    private AsyncSupport() {
+    }
+
+    /**
+     * Получение исполнителя асинхронных операций.
+     *
+     * @return исполнитель асинхронных операций.
+     */
+    @NotNull
+    public static ExecutorService getExecutor() {
+        return EXECUTOR;
+    }
+
+    /**
+     * Асинхронное выполнение операции.
+     *
+     * <p>Отмена возвращаемого фьючерса прерывает поток, выполняющий операцию. Исключения операции передаются
+     * в фьючерс как есть, без обёртки.
+     *
+     * @param task операция.
+     * @param <T>  тип результата операции.
+     * @return фьючерс результата операции.
+     */
+    @NotNull
+    public static <T> CompletableFuture<T> supplyAsync(@NotNull Callable<T> task) {
+        InterruptibleFuture<T> result = new InterruptibleFuture<>();
+        result.task = EXECUTOR.submit(() -> {
+            try {
+                result.complete(task.call());
+            } catch (Throwable e) {
+                result.completeExceptionally(e);
+            }
+        });
+        if (result.isCancelled()) {
+            result.task.cancel(true);
+        }
+        return result;
+    }
+
+    /**
+     * Ограничивает время ожидания результата фьючерса.
+     *
+     * <p>По истечении времени фьючерс завершается исключением {@link TimeoutException}, а операция отменяется.
+     *
+     * @param future  фьючерс.
+     * @param timeout максимальное время ожидания.
+     * @param <T>     тип результата.
+     * @return фьючерс, завершающийся результатом исходного фьючерса или {@link TimeoutException}.
+     */
+    @NotNull
+    public static <T> CompletableFuture<T> withTimeout(@NotNull CompletableFuture<T> future, @NotNull Duration timeout) {
+        CompletableFuture<T> result = new CompletableFuture<T>() {
+            @Override
+            public boolean cancel(boolean mayInterruptIfRunning) {
+                future.cancel(mayInterruptIfRunning);
+                return super.cancel(mayInterruptIfRunning);
+            }
+        };
+        ScheduledFuture<?> timer = TIMER.schedule(() -> {
+            if (result.completeExceptionally(new TimeoutException("Operation timed out after " + timeout))) {
+                future.cancel(true);
+            }
+        }, timeout.toMillis(), TimeUnit.MILLISECONDS);
+        future.whenComplete((value, error) -> {
+            timer.cancel(false);
+            if (error != null) {
+                result.completeExceptionally(error instanceof CompletionException && error.getCause() != null
+                        ? error.getCause()
+                        : error);
+            } else {
+                result.complete(value);
+            }
+        });
+        return result;
+    }
+
+    private static ExecutorService createExecutor() {
+        try {
+            Method method = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) method.invoke(null);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            // JDK без виртуальных потоков
+            ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                    POOL_SIZE, POOL_SIZE,
+                    60, TimeUnit.SECONDS,
+                    new LinkedBlockingQueue<>(),
+                    daemonThreadFactory("javister-async-"));
+            executor.allowCoreThreadTimeOut(true);
+            return executor;
+        }
+    }
+
+    /**
+     * Фабрика daemon потоков для собственных исполнителей.
+     *
+     * @param name имя потоков. Если оканчивается на {@code -}, к нему добавляется номер потока.
+     * @return фабрика потоков.
+     */
+    @NotNull
+    public static ThreadFactory daemonThreadFactory(@NotNull String name) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, name.endsWith("-") ? name + counter.incrementAndGet() : name);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private static class InterruptibleFuture<T> extends CompletableFuture<T> {
+        private volatile Future<?> task;
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            boolean cancelled = super.cancel(mayInterruptIfRunning);
+            Future<?> currentTask = task;
+            if (cancelled && currentTask != null) {
+                currentTask.cancel(true);
+            }
+            return cancelled;
+        }
+    }
+}
@@ -0,0 +1,368 @@
+package com.github.javister.docker.testing.artifacts;
+
+import com.github.javister.docker.testing.AsyncSupport;
+import com.github.javister.docker.testing.base.JavisterBaseContainer;
+import com.github.javister.docker.testing.exec.ExecStream;
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveInputStream;
+import org.apache.commons.compress.archivers.tar.TarArchiveOutputStream;
+import org.apache.commons.compress.compressors.gzip.GzipCompressorOutputStream;
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сбор артефактов (конфигурации, логов, результатов работы приложения) из контейнеров.
+ *
+ * <p>Из каждого контейнера все запрошенные пути выгружаются одним tar архивом, который распаковывается потоково:
+ * небольшие файлы записываются на диск параллельно, крупные - по мере чтения архива, без буферизации в памяти.
+ * Вместо распаковки артефакты можно сохранить в сжатый архив {@code <контейнер>.tar.gz}.
+ *
+ * <p>Пути внутри контейнера могут содержать шаблоны (например {@code /var/log/*}), но не должны содержать
+ * переводов строк. Отсутствующие пути пропускаются.
+ */
+public class ArtifactCollector {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ArtifactCollector.class);
+
+    private static final String TAR_SCRIPT = "IFS=$'\\n'; shopt -s nullglob; cd / || exit 1; files=(); "
+            + "for p in \"$@\"; do files+=(${p#/}); done; "
+            + "[ ${#files[@]} -eq 0 ] && exit 0; "
+            + "exec tar -cf - --ignore-failed-read -- \"${files[@]}\"";
+    private static final String DIRECTORY_TAR_SCRIPT = "[ -d \"$1\" ] || exit 0; exec tar -cf - -C \"$1\" .";
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+    private static final long PARALLEL_WRITE_THRESHOLD = 1024 * 1024;
+    private static final int MAX_IN_FLIGHT_BYTES = 64 * 1024 * 1024;
+    private static final int WRITE_THREADS = 4;
+
+    /**
+     * Исполнитель записи файлов. Отделён от {@link AsyncSupport}: распаковка, выполняющаяся в общем исполнителе
+     * (см. {@link #collectAll(Collection, String...)}), ожидает завершения записи, и общие потоки не должны
+     * ждать задач, стоящих в очереди к ним же.
+     */
+    private static final ExecutorService WRITE_EXECUTOR = createWriteExecutor();
+
+    private final Path targetDir;
+    private long maxArtifactSize = Long.MAX_VALUE;
+    private long maxTotalSize = Long.MAX_VALUE;
+    private boolean compress = false;
+
+    /**
+     * Создаёт сборщик артефактов.
+     *
+     * @param targetDir каталог, в который сохраняются артефакты. Артефакты каждого контейнера сохраняются
+     *                  в подкаталог (или архив) с именем контейнера.
+     */
+    public ArtifactCollector(@NotNull Path targetDir) {
+        this.targetDir = targetDir;
+    }
+
+    /**
+     * Задаёт максимальный размер одного файла артефакта. Файлы большего размера обрезаются до этого размера.
+     *
+     * @param maxArtifactSize максимальный размер файла в байтах.
+     * @return возвращает this для fluent API.
+     */
+    @NotNull
+    public ArtifactCollector withMaxArtifactSize(long maxArtifactSize) {
+        this.maxArtifactSize = maxArtifactSize;
+        return this;
+    }
+
+    /**
+     * Задаёт максимальный суммарный размер артефактов одного контейнера. Файлы, не укладывающиеся в этот размер,
+     * пропускаются.
+     *
+     * @param maxTotalSize максимальный суммарный размер в байтах.
+     * @return возвращает this для fluent API.
+     */
+    @NotNull
+    public ArtifactCollector withMaxTotalSize(long maxTotalSize) {
+        this.maxTotalSize = maxTotalSize;
+        return this;
+    }
+
+    /**
+     * Задаёт сохранение артефактов в сжатый архив {@code <контейнер>.tar.gz} вместо распаковки.
+     *
+     * @param compress сохранять ли артефакты в сжатый архив.
+     * @return возвращает this для fluent API.
+     */
+    @NotNull
+    public ArtifactCollector withCompression(boolean compress) {
+        this.compress = compress;
+        return this;
+    }
+
+    /**
+     * Сбор артефактов из контейнера.
+     *
+     * @param container контейнер.
+     * @param paths     пути внутри контейнера.
+     * @return каталог или архив с артефактами контейнера.
+     * @throws IOException в случае ошибки получения или сохранения артефактов.
+     */
+    @NotNull
+    public Path collect(@NotNull JavisterBaseContainer<?> container, @NotNull String... paths) throws IOException {
+        String name = container.getContainerName().replaceFirst("^/", "");
+        String[] command = new String[paths.length + 4];
+        command[0] = "bash";
+        command[1] = "-c";
+        command[2] = TAR_SCRIPT;
+        command[3] = "tar";
+        System.arraycopy(paths, 0, command, 4, paths.length);
+
+        Files.createDirectories(targetDir);
+        Path target = targetDir.resolve(compress ? name + ".tar.gz" : name);
+        collect(container, name, String.join(", ", paths), target, command);
+        return target;
+    }
+
+    /**
+     * Выгрузка содержимого каталога контейнера непосредственно в каталог сборщика, без подкаталога с именем
+     * контейнера. Отсутствующий в контейнере каталог пропускается.
+     *
+     * @param container     контейнер.
+     * @param containerPath путь к каталогу внутри контейнера.
+     * @return каталог или архив с содержимым каталога контейнера.
+     * @throws IOException в случае ошибки получения или сохранения содержимого каталога.
+     */
+    @NotNull
+    public Path collectDirectory(@NotNull JavisterBaseContainer<?> container, @NotNull String containerPath) throws IOException {
+        String name = container.getContainerName().replaceFirst("^/", "");
+        Path target = compress ? targetDir.resolveSibling(targetDir.getFileName() + ".tar.gz") : targetDir;
+        Files.createDirectories(compress ? target.getParent() : target);
+        collect(container, name, containerPath, target, "bash", "-c", DIRECTORY_TAR_SCRIPT, "tar", containerPath);
+        return target;
+    }
+
+    private void collect(
+            JavisterBaseContainer<?> container,
+            String name,
+            String paths,
+            Path target,
+            String... command) throws IOException {
+        try (ExecStream exec = container.execStreaming(command)) {
+            // Сообщения tar об отсутствующих файлах не нужны, а непрочитанный stderr остановил бы вывод архива
+            exec.getStderr().close();
+            try (TarArchiveInputStream tar = new TarArchiveInputStream(exec.getStdout())) {
+                if (compress) {
+                    compress(tar, target);
+                } else {
+                    extract(tar, target);
+                }
+            }
+            // Закрытый поток stdout отбрасывает остаток вывода (выравнивание архива), так что tar не заблокируется
+            Integer exitCode = exec.getExitCode().get();
+            if (exitCode != null && exitCode != 0) {
+                LOGGER.warn("Some of the artifacts {} were not collected from {}, tar exit code: {}", paths, name, exitCode);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while collecting artifacts from " + name);
+        } catch (ExecutionException e) {
+            throw new IOException("Can't collect artifacts from " + name, e.getCause());
+        }
+    }
+
+    /**
+     * Параллельный сбор артефактов из нескольких контейнеров.
+     *
+     * @param containers контейнеры.
+     * @param paths      пути внутри контейнеров.
+     * @return каталоги или архивы с артефактами контейнеров в порядке следования контейнеров.
+     * @throws IOException в случае ошибки получения или сохранения артефактов любого из контейнеров.
+     */
+    @NotNull
+    public List<Path> collectAll(
+            @NotNull Collection<? extends JavisterBaseContainer<?>> containers,
+            @NotNull String... paths) throws IOException {
+        List<CompletableFuture<Path>> futures = new ArrayList<>();
+        for (JavisterBaseContainer<?> container : containers) {
+            futures.add(AsyncSupport.supplyAsync(() -> collect(container, paths)));
+        }
+        List<Path> result = new ArrayList<>();
+        IOException error = null;
+        for (CompletableFuture<Path> future : futures) {
+            try {
+                result.add(future.get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                futures.forEach(it -> it.cancel(true));
+                throw new InterruptedIOException("Interrupted while collecting artifacts");
+            } catch (ExecutionException e) {
+                IOException cause = e.getCause() instanceof IOException
+                        ? (IOException) e.getCause()
+                        : new IOException("Can't collect artifacts", e.getCause());
+                if (error == null) {
+                    error = cause;
+                } else {
+                    error.addSuppressed(cause);
+                }
+            }
+        }
+        if (error != null) {
+            throw error;
+        }
+        return result;
+    }
+
+    private static ExecutorService createWriteExecutor() {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                WRITE_THREADS, WRITE_THREADS,
+                60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(),
+                AsyncSupport.daemonThreadFactory("javister-artifacts-"));
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    void extract(TarArchiveInputStream tar, Path target) throws IOException, InterruptedException {
+        Semaphore inFlight = new Semaphore(MAX_IN_FLIGHT_BYTES);
+        List<CompletableFuture<Void>> writes = new ArrayList<>();
+        byte[] buffer = new byte[COPY_BUFFER_SIZE];
+        long total = 0;
+        try {
+            while (tar.getNextEntry() != null) {
+                TarArchiveEntry entry = tar.getCurrentEntry();
+                Path path = resolve(target, entry);
+                if (path == null) {
+                    continue;
+                }
+                if (entry.isDirectory()) {
+                    Files.createDirectories(path);
+                    continue;
+                }
+                long size = Math.min(entry.getSize(), maxArtifactSize);
+                if (total + size > maxTotalSize) {
+                    LOGGER.warn("Artifacts size limit exceeded, skipping {}", entry.getName());
+                    continue;
+                }
+                total += size;
+                warnTruncated(entry);
+                Files.createDirectories(path.getParent());
+                if (size > PARALLEL_WRITE_THRESHOLD) {
+                    try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(path))) {
+                        copy(tar, out, size, buffer);
+                    }
+                } else {
+                    byte[] content = new byte[(int) size];
+                    readFully(tar, content);
+                    inFlight.acquire(content.length);
+                    writes.add(CompletableFuture.runAsync(() -> {
+                        try {
+                            Files.write(path, content);
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        } finally {
+                            inFlight.release(content.length);
+                        }
+                    }, WRITE_EXECUTOR));
+                }
+            }
+        } finally {
+            awaitAll(writes);
+        }
+    }
+
+    private void compress(TarArchiveInputStream tar, Path target) throws IOException {
+        byte[] buffer = new byte[COPY_BUFFER_SIZE];
+        long total = 0;
+        try (TarArchiveOutputStream out = new TarArchiveOutputStream(
+                new GzipCompressorOutputStream(new BufferedOutputStream(Files.newOutputStream(target))))) {
+            out.setLongFileMode(TarArchiveOutputStream.LONGFILE_POSIX);
+            out.setBigNumberMode(TarArchiveOutputStream.BIGNUMBER_POSIX);
+            while (tar.getNextEntry() != null) {
+                TarArchiveEntry entry = tar.getCurrentEntry();
+                if (!entry.isDirectory() && !entry.isFile()) {
+                    continue;
+                }
+                long size = Math.min(entry.getSize(), maxArtifactSize);
+                if (!entry.isDirectory()) {
+                    if (total + size > maxTotalSize) {
+                        LOGGER.warn("Artifacts size limit exceeded, skipping {}", entry.getName());
+                        continue;
+                    }
+                    total += size;
+                    warnTruncated(entry);
+                    entry.setSize(size);
+                }
+                out.putArchiveEntry(entry);
+                copy(tar, out, size, buffer);
+                out.closeArchiveEntry();
+            }
+            out.finish();
+        }
+    }
+
+    private static Path resolve(Path target, TarArchiveEntry entry) {
+        // Ссылки не распаковываются: isFile() истинно и для них
+        if (entry.isSymbolicLink() || entry.isLink() || !entry.isDirectory() && !entry.isFile()) {
+            return null;
+        }
+        Path path = target.resolve(entry.getName()).normalize();
+        if (!path.startsWith(target)) {
+            LOGGER.warn("Skipping artifact outside of the target directory: {}", entry.getName());
+            return null;
+        }
+        return path;
+    }
+
+    private void warnTruncated(TarArchiveEntry entry) {
+        if (entry.getSize() > maxArtifactSize) {
+            LOGGER.warn("Artifact {} truncated from {} to {} bytes", entry.getName(), entry.getSize(), maxArtifactSize);
+        }
+    }
+
+    private static void copy(InputStream in, OutputStream out, long size, byte[] buffer) throws IOException {
+        long remaining = size;
+        while (remaining > 0) {
+            int read = in.read(buffer, 0, (int) Math.min(buffer.length, remaining));
+            if (read < 0) {
+                break;
+            }
+            out.write(buffer, 0, read);
+            remaining -= read;
+        }
+    }
+
+    private static void readFully(InputStream in, byte[] content) throws IOException {
+        int offset = 0;
+        while (offset < content.length) {
+            int read = in.read(content, offset, content.length - offset);
+            if (read < 0) {
+                throw new IOException("Unexpected end of the artifacts archive");
+            }
+            offset += read;
+        }
+    }
+
+    private static void awaitAll(List<CompletableFuture<Void>> writes) throws IOException, InterruptedException {
+        try {
+            CompletableFuture.allOf(writes.toArray(new CompletableFuture<?>[0])).get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause() instanceof UncheckedIOException ? e.getCause().getCause() : e.getCause();
+            throw cause instanceof IOException
+                    ? (IOException) cause
+                    : new IOException("Can't write artifact", cause);
+        }
+    }
+}
@@ -1,15 +1,34 @@
 package com.github.javister.docker.testing.base;
 
+import com.github.javister.docker.testing.AsyncSupport;
 import com.github.javister.docker.testing.ExternalLogConsumer;
+import com.github.javister.docker.testing.IllegalExecResultException;
 import com.github.javister.docker.testing.IllegalTestConfigurationException;
 import com.github.javister.docker.testing.TestRunException;
 import com.github.javister.docker.testing.TestServiceContainer;
+import com.github.javister.docker.testing.artifacts.ArtifactCollector;
+import com.github.javister.docker.testing.boot.BootCompletedWaitStrategy;
+import com.github.javister.docker.testing.exec.ExecOutputHandler;
+import com.github.javister.docker.testing.exec.ExecStream;
+import com.github.javister.docker.testing.exec.ExecStreaming;
+import com.github.javister.docker.testing.exec.LineDecoder;
+import com.github.javister.docker.testing.boot.BootProfile;
+import com.github.javister.docker.testing.log.JsonLogConsumer;
+import com.github.javister.docker.testing.log.LogCapture;
+import com.github.javister.docker.testing.proxy.PackageCacheProxy;
+import com.github.javister.docker.testing.runit.ServiceStatus;
+import com.github.javister.docker.testing.runit.ServicesStableWaitStrategy;
+import com.github.javister.docker.testing.stats.ResourceStatsSampler;
+import com.github.dockerjava.api.command.CreateContainerCmd;
+import com.github.dockerjava.api.exception.NotFoundException;
 import org.apache.commons.lang.SystemUtils;
 import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
+import org.testcontainers.Testcontainers;
 import org.testcontainers.containers.BindMode;
 import org.testcontainers.containers.Container;
+import org.testcontainers.containers.GenericContainer;
 import org.testcontainers.containers.Network;
 import org.testcontainers.containers.output.BaseConsumer;
 import org.testcontainers.containers.output.OutputFrame;
@@ -28,10 +47,13 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.SimpleFileVisitor;
 import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
 import java.util.Scanner;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeoutException;
 import java.util.function.Consumer;
 
@@ -341,6 +363,21 @@ public interface JavisterBaseContainer<SELF extends JavisterBaseContainer<SELF>>
         return self();
     }
 
+    /**
+     * Направляет HTTP запросы контейнера через кэширующий прокси пакетов, работающий в JVM тестов
+     * (см. {@link PackageCacheProxy}).
+     * <p>Пакеты, устанавливаемые в контейнере через {@code yum-install}, скачиваются один раз и в дальнейшем
+     * берутся из локального кэша, в том числе при недоступности репозиториев.
+     *
+     * @return возвращает this для fluent API.
+     */
+    @NotNull
+    default SELF withPackageCache() {
+        int port = PackageCacheProxy.getInstance().getPort();
+        Testcontainers.exposeHostPorts(port);
+        return withHttpProxy("http://" + GenericContainer.INTERNAL_HOST_HOSTNAME + ":" + port);
+    }
+
     /**
      * Устанавливает язык и локаль и кодировку внутри контейнера.
      * <p>Данное значение необходимо устанавливать в случае, когда ожидается, что приложение может выводить логи не в
@@ -356,6 +393,116 @@ public interface JavisterBaseContainer<SELF extends JavisterBaseContainer<SELF>>
         return this.withEnv("LANG", lang);
     }
 
+    /**
+     * Задаёт уровень логирования контейнера при его запуске.
+     * <p>Уровень влияет на фильтры syslog-ng и на вывод скриптов {@code minfo}, {@code mdebug} и т.п.
+     *
+     * @param level уровень логирования.
+     * @return возвращает this для fluent API.
+     * @see #setLogLevel(LogLevel)
+     */
+    @NotNull
+    default SELF withLogLevel(@NotNull LogLevel level) {
+        return this.withEnv("LOG_LEVEL", level.name());
+    }
+
+    /**
+     * Меняет уровень логирования контейнера.
+     * <p>Если контейнер запущен, то конфигурация syslog-ng перегенерируется и перечитывается без перезапуска
+     * контейнера. Это позволяет включать подробный лог только на время выполнения проблемного участка теста.
+     * Новое значение также сохраняется в параметрах контейнера и будет использовано при его перезапуске.
+     *
+     * @param level уровень логирования.
+     * @throws IllegalExecResultException если не удалось сменить уровень логирования в контейнере.
+     */
+    default void setLogLevel(@NotNull LogLevel level) throws IOException, InterruptedException {
+        withLogLevel(level);
+        if (isRunning()) {
+            ExecResult execResult = execInContainer("set-log-level", level.name());
+            if (execResult.getExitCode() != 0) {
+                throw new IllegalExecResultException(
+                        "Can't change the log level to " + level + ": " + execResult.getStderr());
+            }
+        }
+    }
+
+    /**
+     * Задаёт список запускаемых в контейнере сервисов runit. Остальные сервисы не запускаются, что сокращает время
+     * старта и потребление памяти контейнером.
+     * <p>Базовый образ содержит сервисы {@code syslog-ng}, {@code syslog-forwarder} и {@code cron}. Без
+     * {@code syslog-ng} не запускается и {@code syslog-forwarder}, а лог стартовых скриптов выводится напрямую в
+     * stdout контейнера.
+     *
+     * @param services имена сервисов. Если не заданы, то не запускается ни один сервис.
+     * @return возвращает this для fluent API.
+     */
+    @NotNull
+    default SELF withServices(@NotNull String... services) {
+        return this.withEnv("SERVICES", services.length == 0 ? "none" : String.join(" ", services));
+    }
+
+    /**
+     * Исключает сервисы runit из списка запускаемых в контейнере (см. {@link #withServices(String...)}).
+     *
+     * @param services имена сервисов, которые не нужно запускать.
+     * @return возвращает this для fluent API.
+     */
+    @NotNull
+    default SELF withoutServices(@NotNull String... services) {
+        StringBuilder value = new StringBuilder(getEnvMap().getOrDefault("SERVICES", "").trim());
+        if (value.length() == 0) {
+            value.append("all");
+        }
+        for (String service : services) {
+            value.append(" -").append(service);
+        }
+        return this.withEnv("SERVICES", value.toString());
+    }
+
+    /**
+     * Включает вывод лога syslog-ng напрямую в stdout контейнера.
+     * <p>По умолчанию syslog-ng пишет лог в файл <b>/var/log/syslog</b>, откуда его в stdout контейнера пересылает
+     * сервис {@code syslog-forwarder}. Прямой вывод избавляет от двойной записи на диск и задержек на опрос файла.
+     * Сервис {@code syslog-forwarder} в этом режиме не запускается.
+     *
+     * @param keepLogFiles сохранять ли при этом копии логов в файлах <b>/var/log/*</b>.
+     * @return возвращает this для fluent API.
+     */
+    @NotNull
+    default SELF withStdoutLogging(boolean keepLogFiles) {
+        return this
+                .withEnv("LOG_OUTPUT", "stdout")
+                .withEnv("LOG_FILES", boolToOnOff(keepLogFiles));
+    }
+
+    /**
+     * Задаёт параметры пакетной записи лога при выводе в stdout контейнера (см. {@link #withStdoutLogging(boolean)}).
+     *
+     * @param lines         количество строк, накапливаемых перед записью. 0 - писать каждую строку сразу.
+     * @param timeoutMillis максимальное время накопления строк в миллисекундах.
+     * @return возвращает this для fluent API.
+     */
+    @NotNull
+    default SELF withLogFlush(int lines, int timeoutMillis) {
+        return this
+                .withEnv("LOG_FLUSH_LINES", Integer.toString(lines))
+                .withEnv("LOG_FLUSH_TIMEOUT", Integer.toString(timeoutMillis));
+    }
+
+    /**
+     * Переключает лог syslog-ng в формат JSON и добавляет обработчик, получающий разобранные сообщения.
+     * <p>Каждое сообщение выводится одним JSON объектом с полями time, facility, level, program, pid и message.
+     *
+     * @param consumer обработчик сообщений лога.
+     * @return возвращает this для fluent API.
+     */
+    @NotNull
+    default SELF withLogEventConsumer(@NotNull JsonLogConsumer consumer) {
+        return this
+                .withEnv("LOG_FORMAT", "json")
+                .withLogConsumer(consumer);
+    }
+
     /**
      * Добавляет логгер для вывода логов во внешнюю систему. Включай логи контейнеров-зависимостей.
      * <p>Например этот метод может использоваться для перенаправления вывода контейнера
@@ -405,6 +552,36 @@ public interface JavisterBaseContainer<SELF extends JavisterBaseContainer<SELF>>
         return self();
     }
 
+    /**
+     * Получение tmpfs, смонтированных методом {@link JavisterBaseContainerImpl#withRelativeTmpfsBind(String, String, long)}.
+     *
+     * @return неизменяемое отображение путей внутри контейнера на пути на хосте относительно
+     * {@link JavisterBaseContainer#getTestVolumePath()}.
+     */
+    @NotNull
+    default Map<String, String> getTmpfsBinds() {
+        return Collections.emptyMap();
+    }
+
+    /**
+     * Копирует содержимое tmpfs, смонтированных методом
+     * {@link JavisterBaseContainerImpl#withRelativeTmpfsBind(String, String, long)},
+     * в соответствующие каталоги хоста.
+     * <p>Если каталог {@link JavisterBaseContainer#getTestVolumePath()} не определён или контейнер не запущен -
+     * операция игнорируется.
+     *
+     * @throws IOException в случае ошибки копирования.
+     */
+    default void syncTmpfsBinds() throws IOException {
+        File path = getTestVolumePath();
+        if (path == null || !isRunning()) {
+            return;
+        }
+        for (Map.Entry<String, String> bind : getTmpfsBinds().entrySet()) {
+            new ArtifactCollector(path.toPath().resolve(bind.getValue())).collectDirectory(this, bind.getKey());
+        }
+    }
+
     /**
      * Задаёт логин пользователя по умолчанию.
      * <p>Если этот параметр не задан, то пользователь по умолчанию имеет логин {@code system}.
@@ -461,6 +638,162 @@ public interface JavisterBaseContainer<SELF extends JavisterBaseContainer<SELF>>
         return getTestClass() != null ? JavisterBaseContainer.getTestPath(getTestClass()) : null;
     }
 
+    /**
+     * Получение профиля старта контейнера, записанного {@code my_init}.
+     * <p>Профиль содержит длительности выполнения стартовых скриптов, запуска runit и выхода сервисов в состояние
+     * {@code run}. Пока старт не завершён, профиль может быть неполным (см. {@link BootProfile#isComplete()}).
+     *
+     * @return профиль старта или null, если образ контейнера не записывает профиль старта.
+     */
+    @Nullable
+    default BootProfile getBootProfile() {
+        try {
+            return copyFileFromContainer(BootProfile.PROFILE_FILE, BootProfile::read);
+        } catch (NotFoundException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Задаёт ожидание завершения старта контейнера: выполнения стартовых скриптов и запуска всех сервисов runit.
+     * <p>Ожидание производится одним вызовом {@code wait4boot} внутри контейнера, без опроса логов и фиксированных
+     * пауз. Для ожидания промежуточного состояния старта используйте {@link BootCompletedWaitStrategy} напрямую.
+     *
+     * @return возвращает this для fluent API.
+     */
+    @NotNull
+    default SELF waitingForBoot() {
+        return waitingFor(new BootCompletedWaitStrategy());
+    }
+
+    /**
+     * Получение состояния сервисов runit контейнера.
+     * <p>Состояние всех сервисов читается из файлов {@code /etc/service/<сервис>/supervise/status} одним вызовом
+     * команды в контейнере.
+     *
+     * @return состояния сервисов по их именам.
+     * @throws IOException          в случае ошибки выполнения команды в контейнере.
+     * @throws InterruptedException если ожидание выполнения команды было прервано.
+     */
+    @NotNull
+    default Map<String, ServiceStatus> getServiceStatus() throws IOException, InterruptedException {
+        return ServiceStatus.read(this);
+    }
+
+    /**
+     * Задаёт ожидание стабильной работы сервисов runit: все сервисы, запускаемые при старте, должны находиться в
+     * состоянии {@code run} не менее заданного времени. Сервисы, попавшие в цикл перезапусков, прерывают ожидание
+     * ошибкой (см. {@link ServicesStableWaitStrategy}).
+     *
+     * @param minUptime минимальное время работы сервисов.
+     * @return возвращает this для fluent API.
+     */
+    @NotNull
+    default SELF waitingForStableServices(@NotNull Duration minUptime) {
+        return waitingFor(new ServicesStableWaitStrategy().withMinUptime(minUptime));
+    }
+
+    /**
+     * Ограничивает количество процессорного времени, доступного контейнеру (аналог {@code docker run --cpus}).
+     *
+     * @param cpus количество процессоров, например 0.5 или 2.
+     * @return возвращает this для fluent API.
+     */
+    @NotNull
+    default SELF withCpus(double cpus) {
+        if (cpus <= 0) {
+            throw new IllegalTestConfigurationException("Количество процессоров должно быть положительным: " + cpus);
+        }
+        return withCreateContainerCmdModifier(cmd -> cmd.getHostConfig().withNanoCPUs(Math.round(cpus * 1_000_000_000L)));
+    }
+
+    /**
+     * Ограничивает память, доступную контейнеру (аналог {@code docker run --memory}). Подкачка для контейнера
+     * отключается, так что при превышении ограничения процессы контейнера завершаются OOM killer'ом, а не замедляются.
+     *
+     * @param bytes максимальный объём памяти в байтах.
+     * @return возвращает this для fluent API.
+     */
+    @NotNull
+    default SELF withMemoryLimit(long bytes) {
+        if (bytes <= 0) {
+            throw new IllegalTestConfigurationException("Ограничение памяти должно быть положительным: " + bytes);
+        }
+        return withCreateContainerCmdModifier(cmd -> cmd.getHostConfig().withMemory(bytes).withMemorySwap(bytes));
+    }
+
+    /**
+     * Задаёт процессоры, на которых могут выполняться процессы контейнера (аналог {@code docker run --cpuset-cpus}).
+     *
+     * @param cpuSet список номеров процессоров, например {@code "0-3"} или {@code "0,2"}.
+     * @return возвращает this для fluent API.
+     */
+    @NotNull
+    default SELF withCpuSet(@NotNull String cpuSet) {
+        return withCreateContainerCmdModifier(cmd -> cmd.getHostConfig().withCpusetCpus(cpuSet));
+    }
+
+    /**
+     * Добавляет модификатор команды создания контейнера. Реализуется {@link GenericContainer}, объявлен здесь для
+     * ограничений ресурсов контейнера ({@link #withCpus(double)} и подобных методов).
+     *
+     * @param modifier модификатор команды создания контейнера.
+     * @return возвращает this для fluent API.
+     */
+    @NotNull
+    SELF withCreateContainerCmdModifier(Consumer<CreateContainerCmd> modifier);
+
+    /**
+     * Получение сборщика статистики потребления ресурсов (см.
+     * {@link JavisterBaseContainerImpl#withStatsSampling()}).
+     *
+     * @return сборщик статистики или null, если сбор статистики не включён или контейнер ещё не запускался.
+     */
+    @Nullable
+    default ResourceStatsSampler getStatsSampler() {
+        return null;
+    }
+
+    /**
+     * Получение захваченного лога контейнера (см. {@link JavisterBaseContainerImpl#withLogCapture()}).
+     *
+     * @return захваченный лог или null, если захват лога не включён.
+     */
+    @Nullable
+    default LogCapture getLogCapture() {
+        return null;
+    }
+
+    /**
+     * Ожидание появления в логе контейнера всех заданных подстрок. Учитываются и уже выведенные строки лога.
+     * <p>Все подстроки ищутся одним проходом по логу, так что стоимость ожидания не зависит от их количества.
+     *
+     * @param timeout  максимальное время ожидания.
+     * @param patterns искомые подстроки.
+     * @return true, если все подстроки найдены, и false в случае таймаута.
+     * @throws InterruptedException              если ожидание прервано.
+     * @throws IllegalTestConfigurationException если захват лога не включён
+     *                                           (см. {@link JavisterBaseContainerImpl#withLogCapture()}).
+     */
+    default boolean waitForLog(@NotNull Duration timeout, @NotNull String... patterns) throws InterruptedException {
+        LogCapture capture = getLogCapture();
+        if (capture == null) {
+            throw new IllegalTestConfigurationException("Log capture is not enabled, use withLogCapture()");
+        }
+        return capture.waitForLog(timeout, patterns);
+    }
+
+    /**
+     * Проверка, будет ли контейнер переиспользован следующим запуском тестов (см.
+     * {@link JavisterBaseContainerImpl#withReuse(Duration)}). Такой контейнер не останавливается
+     * по окончании тестов.
+     *
+     * @return true, если переиспользование включено для контейнера и разрешено в окружении testcontainers.
+     */
+    default boolean isReuseActive() {
+        return false;
+    }
+
     /**
      * Ожидание доступности подключения из контейнера по заданному адресу и порту в течении заданного количества секунд.
      *
@@ -487,6 +820,132 @@ public interface JavisterBaseContainer<SELF extends JavisterBaseContainer<SELF>>
         return execResult.getExitCode() == 0;
     }
 
+    /**
+     * Асинхронный запуск контейнера.
+     * <p>Отмена фьючерса прерывает поток, выполняющий запуск. Ограничить время запуска можно с помощью
+     * {@link AsyncSupport#withTimeout(CompletableFuture, Duration)}.
+     *
+     * @return фьючерс, завершающийся после запуска контейнера.
+     */
+    @NotNull
+    default CompletableFuture<SELF> startAsync() {
+        return AsyncSupport.supplyAsync(() -> {
+            start();
+            return self();
+        });
+    }
+
+    /**
+     * Асинхронная остановка контейнера.
+     *
+     * @return фьючерс, завершающийся после остановки контейнера.
+     */
+    @NotNull
+    default CompletableFuture<Void> stopAsync() {
+        return AsyncSupport.supplyAsync(() -> {
+            stop();
+            return null;
+        });
+    }
+
+    /**
+     * Асинхронное выполнение команды внутри контейнера.
+     *
+     * @param command команда и её аргументы.
+     * @return фьючерс результата выполнения команды.
+     */
+    @NotNull
+    default CompletableFuture<ExecResult> execAsync(@NotNull String... command) {
+        return AsyncSupport.supplyAsync(() -> execInContainer(command));
+    }
+
+    /**
+     * Потоковое выполнение команды внутри контейнера.
+     * <p>В отличие от {@link #execInContainer(String...)}, вывод команды не накапливается в памяти, а передаётся
+     * обработчику порциями по мере поступления. Пока обработчик не вернул управление, чтение вывода приостанавливается.
+     *
+     * @param handler обработчик вывода команды.
+     * @param command команда и её аргументы.
+     * @return фьючерс кода завершения команды.
+     */
+    @NotNull
+    default CompletableFuture<Integer> execStreaming(@NotNull ExecOutputHandler handler, @NotNull String... command) {
+        return execStreaming(null, handler, command);
+    }
+
+    /**
+     * Потоковое выполнение команды внутри контейнера с передачей данных на stdin команды
+     * (см. {@link #execStreaming(ExecOutputHandler, String...)}).
+     *
+     * @param stdin   данные, передаваемые на stdin команды, или null, если stdin команде не нужен.
+     * @param handler обработчик вывода команды.
+     * @param command команда и её аргументы.
+     * @return фьючерс кода завершения команды.
+     */
+    @NotNull
+    default CompletableFuture<Integer> execStreaming(
+            @Nullable InputStream stdin,
+            @NotNull ExecOutputHandler handler,
+            @NotNull String... command) {
+        return ExecStreaming.start(getDockerClient(), getContainerId(), stdin, handler, command);
+    }
+
+    /**
+     * Потоковое выполнение команды внутри контейнера с получением вывода в виде потоков {@link InputStream}.
+     * <p>Потоки stdout и stderr необходимо читать параллельно, либо закрыть ненужный (см. {@link ExecStream}).
+     *
+     * @param command команда и её аргументы.
+     * @return потоки вывода и код завершения команды.
+     */
+    @NotNull
+    default ExecStream execStreaming(@NotNull String... command) {
+        ExecStream stream = new ExecStream();
+        return stream.withExitCode(execStreaming(stream.getHandler(), command));
+    }
+
+    /**
+     * Выполнение команды внутри контейнера с построчной обработкой её вывода.
+     * <p>Буферы строк переиспользуются, поэтому строка действительна только на время вызова обработчика.
+     *
+     * @param handler обработчик строк вывода команды.
+     * @param command команда и её аргументы.
+     * @return фьючерс кода завершения команды.
+     */
+    @NotNull
+    default CompletableFuture<Integer> execLines(@NotNull LineDecoder.LineHandler handler, @NotNull String... command) {
+        return execStreaming(new LineDecoder(handler), command);
+    }
+
+    /**
+     * Сбор артефактов (конфигурации, логов и т.п.) из контейнера в указанный каталог.
+     * <p>Все пути выгружаются из контейнера одним tar архивом и распаковываются в подкаталог с именем контейнера.
+     * Для ограничения размера артефактов, сжатия и параллельного сбора из нескольких контейнеров используйте
+     * {@link ArtifactCollector} напрямую.
+     *
+     * @param targetDir каталог, в который сохраняются артефакты.
+     * @param paths     пути внутри контейнера. Могут содержать шаблоны, например {@code /var/log/*}.
+     * @return каталог с артефактами контейнера.
+     * @throws IOException в случае ошибки получения или сохранения артефактов.
+     */
+    @NotNull
+    default Path collectArtifacts(@NotNull Path targetDir, @NotNull String... paths) throws IOException {
+        return new ArtifactCollector(targetDir).collect(this, paths);
+    }
+
+    /**
+     * Асинхронное ожидание доступности подключения из контейнера по заданному адресу и порту
+     * (см. {@link #waitConnectionOpen(String, int, int)}).
+     *
+     * @param host    адрес по которому ожидать подключение
+     * @param port    порт по которому ожидать подключение
+     * @param seconds время, в течении которого ожидать подключения
+     * @return фьючерс, завершающийся значением true, если удалось дождаться подключения, и false в случае таймаута
+     */
+    @NotNull
+    default CompletableFuture<Boolean> waitConnectionOpenAsync(@NotNull String host, int port, int seconds) {
+        return AsyncSupport.supplyAsync(() -> waitConnectionOpen(host, port, seconds));
+    }
+
     /**
      * Утилитный метод преобразования boolean значение в значения on/off.
      *
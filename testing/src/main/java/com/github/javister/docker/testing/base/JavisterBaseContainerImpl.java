@@ -1,16 +1,40 @@
 package com.github.javister.docker.testing.base;
 
+import com.github.dockerjava.api.command.InspectContainerResponse;
+import com.github.javister.docker.testing.IllegalTestConfigurationException;
+import com.github.javister.docker.testing.TestRunException;
+import com.github.javister.docker.testing.boot.BootProfile;
+import com.github.javister.docker.testing.image.ImageIdPullPolicy;
+import com.github.javister.docker.testing.log.LogCapture;
+import com.github.javister.docker.testing.reuse.ContainerReuse;
+import com.github.javister.docker.testing.runit.ServiceStatus;
+import com.github.javister.docker.testing.stand.StandResetHook;
+import com.github.javister.docker.testing.stats.ResourceStatsSampler;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.testcontainers.containers.GenericContainer;
 import org.testcontainers.containers.Network;
+import org.testcontainers.containers.output.FrameConsumerResultCallback;
+import org.testcontainers.containers.output.OutputFrame;
 import org.testcontainers.containers.output.Slf4jLogConsumer;
+import org.testcontainers.lifecycle.TestDescription;
+import org.testcontainers.lifecycle.TestLifecycleAware;
 import org.testcontainers.utility.DockerImageName;
+import org.testcontainers.utility.TestcontainersConfiguration;
 
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.concurrent.Future;
+import java.util.function.Consumer;
 
 /**
  * Обёртка над базовым контейнером
@@ -26,12 +50,23 @@ import java.util.concurrent.Future;
  * @param <SELF> параметр, необходимый для организации паттерна fluent API.
  */
 @SuppressWarnings({"squid:S00119", "WeakerAccess", "unused", "UnusedReturnValue"})
-public class JavisterBaseContainerImpl<SELF extends JavisterBaseContainerImpl<SELF>> extends GenericContainer<SELF> implements JavisterBaseContainer<SELF> {
+public class JavisterBaseContainerImpl<SELF extends JavisterBaseContainerImpl<SELF>> extends GenericContainer<SELF> implements JavisterBaseContainer<SELF>, TestLifecycleAware {
     private static final Logger LOGGER = LoggerFactory.getLogger(JavisterBaseContainerImpl.class);
+    private static final int BOOT_REPORT_PHASES = 5;
 
     private Class<?> testClass;
     protected String logPrefix = "DOCKER";
     private boolean suppressSlfLogger = false;
+    private boolean statsSampling = false;
+    private ResourceStatsSampler statsSampler;
+    private LogCapture logCapture;
+    private Duration reuseIdleTimeout = ContainerReuse.DEFAULT_IDLE_TIMEOUT;
+    private StandResetHook<? super SELF> reuseResetHook;
+    /**
+     * Признак того, что контейнер создан текущим запуском, а не найден для переиспользования.
+     */
+    private boolean createdByThisRun = false;
+    private final Map<String, String> tmpfsBinds = new LinkedHashMap<>();
     private final Slf4jLogConsumer logConsumer = new Slf4jLogConsumer(LOGGER).withPrefix(logPrefix).withRemoveAnsiCodes(false);
 
     /**
@@ -67,6 +102,7 @@ public class JavisterBaseContainerImpl<SELF extends JavisterBaseContainerImpl<SE
      */
     public JavisterBaseContainerImpl(String dockerImageName, String tag) {
         super(dockerImageName + ":" + tag);
+        applyImageId(dockerImageName, tag);
         initialize();
     }
 
@@ -130,6 +166,7 @@ public class JavisterBaseContainerImpl<SELF extends JavisterBaseContainerImpl<SE
     public JavisterBaseContainerImpl(String dockerImageName, String tag, Class<?> testClass) {
         super(dockerImageName + ":" + tag);
         this.testClass = testClass;
+        applyImageId(dockerImageName, tag);
         initialize();
     }
 
@@ -146,6 +183,34 @@ public class JavisterBaseContainerImpl<SELF extends JavisterBaseContainerImpl<SE
         initialize();
     }
 
+    /**
+     * Для базового образа из метаданных библиотеки задаёт его идентификатор, чтобы не скачивать и не запрашивать
+     * повторно уже имеющийся локально образ.
+     */
+    private void applyImageId(String dockerImageName, String tag) {
+        try {
+            if (dockerImageName.equals(JavisterBaseContainer.getImageRepository(JavisterBaseContainerImpl.class, null))
+                    && tag.equals(JavisterBaseContainer.getImageTag(JavisterBaseContainerImpl.class, null))) {
+                withImageId(JavisterBaseContainer.getImageId(JavisterBaseContainerImpl.class, null));
+            }
+        } catch (RuntimeException e) {
+            // Метаданные образа без идентификатора
+            LOGGER.debug("Image id of {}:{} is unknown, using the default pull policy", dockerImageName, tag, e);
+        }
+    }
+
+    /**
+     * Задаёт ожидаемый идентификатор образа контейнера (см. {@link JavisterBaseContainer#getImageId(Class, String)}).
+     * <p>Если образ с этим идентификатором уже есть в локальном демоне Docker, образ не скачивается и не
+     * запрашивается повторно (см. {@link ImageIdPullPolicy}).
+     *
+     * @param imageId идентификатор образа.
+     * @return возвращает this для fluent API.
+     */
+    @NotNull
+    public SELF withImageId(@NotNull String imageId) {
+        return withImagePullPolicy(new ImageIdPullPolicy(imageId));
+    }
 
     @Override
     public boolean equals(Object o) {
@@ -197,25 +262,285 @@ public class JavisterBaseContainerImpl<SELF extends JavisterBaseContainerImpl<SE
         return logConsumer;
     }
 
+    /**
+     * Включает фоновый сбор статистики потребления ресурсов контейнером на время его работы.
+     * <p>Статистика доступна через {@link #getStatsSampler()}, а итоги за время каждого теста выгружаются в отчёт
+     * расширением {@link com.github.javister.docker.testing.stats.ResourceStatsExtension}.
+     *
+     * @return возвращает this для fluent API.
+     */
+    @NotNull
+    public SELF withStatsSampling() {
+        this.statsSampling = true;
+        return self();
+    }
+
+    @Nullable
+    @Override
+    public ResourceStatsSampler getStatsSampler() {
+        return statsSampler;
+    }
+
+    @Nullable
+    @Override
+    public LogCapture getLogCapture() {
+        return logCapture;
+    }
+
+    /**
+     * Включает захват лога контейнера в память с буфером размера по умолчанию ({@link LogCapture#DEFAULT_CAPACITY}).
+     *
+     * @return возвращает this для fluent API.
+     */
+    @NotNull
+    public SELF withLogCapture() {
+        return withLogCapture(LogCapture.DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Включает захват лога контейнера в память с индексом строк. Захваченный лог доступен через
+     * {@link #getLogCapture()}, а ожидание строк лога - через {@link #waitForLog(Duration, String...)}.
+     *
+     * @param capacityBytes размер буфера лога в байтах. При переполнении вытесняются самые старые строки.
+     * @return возвращает this для fluent API.
+     */
+    @NotNull
+    public SELF withLogCapture(int capacityBytes) {
+        if (logCapture != null) {
+            getLogConsumers().remove(logCapture);
+        }
+        logCapture = new LogCapture(capacityBytes);
+        return withLogConsumer(logCapture);
+    }
+
+    /**
+     * Монтирует в контейнер tmpfs ограниченного размера вместо каталога {@code hostPath} относительно
+     * {@link JavisterBaseContainer#getTestVolumePath()}.
+     * <p>Запись в такой каталог не затрагивает диск хоста. Содержимое tmpfs копируется в каталог хоста только
+     * при падении теста (для контейнеров под управлением testcontainers) или явным вызовом {@link #syncTmpfsBinds()}.
+     *
+     * @param hostPath      путь на хосте, в который копируется содержимое tmpfs.
+     * @param containerPath путь внутри контейнера.
+     * @param sizeBytes     максимальный размер tmpfs в байтах.
+     * @return возвращает this для fluent API.
+     */
+    @NotNull
+    public SELF withRelativeTmpfsBind(@NotNull String hostPath, @NotNull String containerPath, long sizeBytes) {
+        if (sizeBytes <= 0) {
+            throw new IllegalTestConfigurationException("Размер tmpfs должен быть положительным: " + sizeBytes);
+        }
+        tmpfsBinds.put(containerPath, hostPath);
+        String options = "rw,exec,size=" + sizeBytes + ",mode=1777";
+        return withCreateContainerCmdModifier(cmd -> {
+            // Сохраняем tmpfs, заданные через withTmpFs() и предыдущими вызовами
+            Map<String, String> tmpFs = new HashMap<>();
+            if (cmd.getHostConfig().getTmpFs() != null) {
+                tmpFs.putAll(cmd.getHostConfig().getTmpFs());
+            }
+            tmpFs.put(containerPath, options);
+            cmd.getHostConfig().withTmpFs(tmpFs);
+        });
+    }
+
+    @NotNull
+    @Override
+    public Map<String, String> getTmpfsBinds() {
+        return Collections.unmodifiableMap(tmpfsBinds);
+    }
+
+    @Override
+    public void afterTest(TestDescription description, Optional<Throwable> throwable) {
+        if (throwable.isPresent() && !tmpfsBinds.isEmpty()) {
+            try {
+                syncTmpfsBinds();
+            } catch (IOException e) {
+                LOGGER.warn("{}: can't copy tmpfs contents of the failed test {}", logPrefix, description.getFilesystemFriendlyName(), e);
+            }
+        }
+    }
+
     @NotNull
     @Override
     public SELF withNetwork(@NotNull Network network) {
-        // Форсируем создание сети
-        network.getId();
+        // Сеть создаётся лениво, при старте первого подключённого к ней контейнера
         getInternalDependencies().forEach(it -> it.withNetwork(network));
         return super.withNetwork(network);
     }
 
     @Override
     public void setNetwork(@NotNull Network network) {
-        network.getId();
         getInternalDependencies().forEach(it -> it.setNetwork(network));
         super.setNetwork(network);
     }
 
+    /**
+     * Включает переиспользование контейнера между запусками тестов без сброса его состояния.
+     *
+     * @param idleTimeout время простоя, после которого неиспользуемый контейнер удаляется.
+     * @return возвращает this для fluent API.
+     * @see #withReuse(Duration, StandResetHook)
+     */
+    @NotNull
+    public SELF withReuse(@NotNull Duration idleTimeout) {
+        return withReuse(idleTimeout, null);
+    }
+
+    /**
+     * Включает переиспользование контейнера между запусками тестов (см. {@link ContainerReuse}).
+     *
+     * <p>Контейнер не удаляется по окончании тестов и подхватывается следующим запуском, если совпадает отпечаток
+     * его конфигурации, включая идентификатор образа. Перед переиспользованием проверяется, что все сервисы runit
+     * контейнера работают, иначе контейнер пересоздаётся. Переиспользование работает только если оно разрешено
+     * в окружении testcontainers ({@code testcontainers.reuse.enable=true}), иначе контейнер ведёт себя как обычно.
+     *
+     * <p>Потребители лога переиспользованного контейнера, включая {@link #getLogCapture()}, получают только строки,
+     * выведенные начиная с момента переиспользования: лог предыдущих запусков не повторяется, и
+     * {@link #waitForLog(Duration, String...)} не срабатывает на оставшиеся от них строки.
+     *
+     * @param idleTimeout время простоя, после которого неиспользуемый контейнер удаляется. Не меньше двух интервалов
+     *                    {@link ContainerReuse#REFRESH_INTERVAL} обновления времени использования.
+     * @param resetHook   сброс состояния переиспользованного контейнера перед тестами или null.
+     * @return возвращает this для fluent API.
+     * @throws IllegalTestConfigurationException если время простоя слишком мало.
+     */
+    @NotNull
+    public SELF withReuse(@NotNull Duration idleTimeout, @Nullable StandResetHook<? super SELF> resetHook) {
+        if (idleTimeout.compareTo(ContainerReuse.REFRESH_INTERVAL.multipliedBy(2)) < 0) {
+            throw new IllegalTestConfigurationException("The idle timeout " + idleTimeout
+                    + " must be at least twice the refresh interval " + ContainerReuse.REFRESH_INTERVAL);
+        }
+        this.reuseIdleTimeout = idleTimeout;
+        this.reuseResetHook = resetHook;
+        return withReuse(true);
+    }
+
+    @Override
+    public boolean isReuseActive() {
+        return isShouldBeReused() && TestcontainersConfiguration.getInstance().environmentSupportsReuse();
+    }
+
+    @Override
+    public void start() {
+        createdByThisRun = false;
+        if (!isReuseActive()) {
+            super.start();
+            return;
+        }
+        ContainerReuse.removeIdleContainers(getDockerClient());
+        try {
+            super.start();
+        } catch (RuntimeException e) {
+            if (!ContainerReuse.isUnhealthy(e)) {
+                throw e;
+            }
+            // Неисправный контейнер удаляется, следующий старт создаёт новый
+            LOGGER.warn("{}: the reused container is unhealthy, recreating it", logPrefix, e);
+            super.stop();
+            super.start();
+        }
+        ContainerReuse.markUsed(getContainerId());
+    }
+
+    @Override
+    public void stop() {
+        if (isReuseActive() && getContainerId() != null) {
+            // Переиспользуемый контейнер остаётся работать до следующего запуска или удаления по простою,
+            // освобождаются только ресурсы этого запуска
+            closeRunResources();
+            ContainerReuse.markUsed(getContainerId());
+            return;
+        }
+        super.stop();
+    }
+
     @Override
     protected void configure() {
         super.configure();
         this.withLogConsumer(getLogConsumer());
+        if (isReuseActive()) {
+            withLabel(ContainerReuse.IDLE_TIMEOUT_LABEL, String.valueOf(reuseIdleTimeout.getSeconds()));
+            withLabel(ContainerReuse.FINGERPRINT_LABEL, ContainerReuse.fingerprint(this));
+        }
+    }
+
+    @Override
+    protected void containerIsCreated(String containerId) {
+        createdByThisRun = true;
+        super.containerIsCreated(containerId);
+    }
+
+    @Override
+    public void followOutput(Consumer<OutputFrame> consumer) {
+        if (!isReuseActive() || createdByThisRun) {
+            super.followOutput(consumer);
+            return;
+        }
+        // testcontainers передаёт потребителям лог с момента создания контейнера, то есть и лог предыдущих
+        // запусков. Переиспользованному контейнеру передаётся лог только с текущего момента.
+        FrameConsumerResultCallback callback = new FrameConsumerResultCallback();
+        callback.addConsumer(OutputFrame.OutputType.STDOUT, consumer);
+        callback.addConsumer(OutputFrame.OutputType.STDERR, consumer);
+        getDockerClient().logContainerCmd(getContainerId())
+                .withFollowStream(true)
+                .withSince((int) Instant.now().getEpochSecond())
+                .withStdOut(true)
+                .withStdErr(true)
+                .exec(callback);
+    }
+
+    @Override
+    protected void containerIsStarting(InspectContainerResponse containerInfo, boolean reused) {
+        if (reused) {
+            Map<String, ServiceStatus> services;
+            try {
+                services = getServiceStatus();
+            } catch (IOException | RuntimeException e) {
+                throw new ContainerReuse.UnhealthyContainerException("Can't read service status", e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new TestRunException("Interrupted while checking the reused container", e);
+            }
+            ContainerReuse.checkHealth(services);
+        }
+        super.containerIsStarting(containerInfo, reused);
+    }
+
+    @Override
+    protected void containerIsStarted(InspectContainerResponse containerInfo, boolean reused) {
+        super.containerIsStarted(containerInfo, reused);
+        if (reused && reuseResetHook != null) {
+            try {
+                reuseResetHook.reset(self());
+            } catch (Exception e) {
+                throw new TestRunException("Can't reset the reused container", e);
+            }
+        }
+    }
+
+    @Override
+    protected void containerIsStarted(InspectContainerResponse containerInfo) {
+        super.containerIsStarted(containerInfo);
+        if (statsSampling) {
+            statsSampler = new ResourceStatsSampler(logPrefix, ResourceStatsSampler.DEFAULT_CAPACITY)
+                    .start(getDockerClient(), getContainerId());
+        }
+        if (LOGGER.isDebugEnabled()) {
+            BootProfile bootProfile = getBootProfile();
+            if (bootProfile != null) {
+                LOGGER.debug("{}: {}", logPrefix, bootProfile.formatReport(BOOT_REPORT_PHASES));
+            }
+        }
+    }
+
+    @Override
+    protected void containerIsStopping(InspectContainerResponse containerInfo) {
+        closeRunResources();
+        super.containerIsStopping(containerInfo);
+    }
+
+    private void closeRunResources() {
+        if (statsSampler != null) {
+            statsSampler.close();
+        }
     }
 }
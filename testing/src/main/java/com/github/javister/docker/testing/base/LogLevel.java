@@ -0,0 +1,15 @@
+package com.github.javister.docker.testing.base;
+
+/**
+ * Уровни логирования контейнера (переменная окружения {@code LOG_LEVEL}).
+ *
+ * @see JavisterBaseContainer#withLogLevel(LogLevel)
+ * @see JavisterBaseContainer#setLogLevel(LogLevel)
+ */
+public enum LogLevel {
+    CRITICAL,
+    ERROR,
+    WARNING,
+    INFO,
+    DEBUG
+}
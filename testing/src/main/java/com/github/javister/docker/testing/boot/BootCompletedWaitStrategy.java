@@ -0,0 +1,101 @@
+package com.github.javister.docker.testing.boot;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testcontainers.containers.Container.ExecResult;
+import org.testcontainers.containers.ContainerLaunchException;
+import org.testcontainers.containers.wait.strategy.AbstractWaitStrategy;
+
+import java.io.IOException;
+
+/**
+ * Стратегия ожидания завершения старта контейнера, основанного на образе javister-docker-base.
+ *
+ * <p>Ожидание выполняется одним вызовом утилиты {@code wait4boot} внутри контейнера, которая блокируется до
+ * публикации {@code my_init} требуемого состояния старта. Опрос портов или логов контейнера не производится.
+ *
+ * <p>По умолчанию ожидается состояние {@link BootState#ALL_SERVICES_UP}.
+ */
+public class BootCompletedWaitStrategy extends AbstractWaitStrategy {
+    private static final Logger LOGGER = LoggerFactory.getLogger(BootCompletedWaitStrategy.class);
+    private static final int EXIT_FAILED = 1;
+    private static final int EXIT_TIMEOUT = 2;
+
+    private BootState state = BootState.ALL_SERVICES_UP;
+
+    /**
+     * Задаёт состояние старта, которое необходимо дождаться.
+     *
+     * @param state состояние старта.
+     * @return возвращает this для fluent API.
+     */
+    @NotNull
+    public BootCompletedWaitStrategy withState(@NotNull BootState state) {
+        if (state == BootState.FAILED) {
+            throw new IllegalArgumentException("Can't wait for the failed state");
+        }
+        this.state = state;
+        return this;
+    }
+
+    @Override
+    protected void waitUntilReady() {
+        if (!waitStrategyTarget.isRunning()) {
+            throw bootFailed(null);
+        }
+        ExecResult result;
+        try {
+            result = waitStrategyTarget.execInContainer(
+                    "wait4boot",
+                    "-w", Long.toString(Math.max(1, startupTimeout.getSeconds())),
+                    "-s", state.getStateName());
+        } catch (IOException e) {
+            throw new ContainerLaunchException("Can't wait for the container boot", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ContainerLaunchException("Interrupted while waiting for the container boot", e);
+        } catch (RuntimeException e) {
+            // my_init завершился до или во время выполнения wait4boot
+            if (!waitStrategyTarget.isRunning()) {
+                throw bootFailed(e);
+            }
+            throw new ContainerLaunchException("Can't wait for the container boot", e);
+        }
+        switch (result.getExitCode()) {
+            case 0:
+                return;
+            case EXIT_FAILED:
+                throw bootFailed(null);
+            case EXIT_TIMEOUT:
+                throw new ContainerLaunchException("Timed out waiting for the container boot state " + state
+                        + ", last state: " + result.getStdout().trim() + getProblemsReport());
+            default:
+                if (!waitStrategyTarget.isRunning()) {
+                    throw bootFailed(null);
+                }
+                throw new ContainerLaunchException("Can't wait for the container boot: " + result.getStderr());
+        }
+    }
+
+    @NotNull
+    private ContainerLaunchException bootFailed(@Nullable Exception cause) {
+        String message = "Container boot failed" + getProblemsReport();
+        return cause != null ? new ContainerLaunchException(message, cause) : new ContainerLaunchException(message);
+    }
+
+    @NotNull
+    private String getProblemsReport() {
+        try {
+            BootProfile profile = waitStrategyTarget.copyFileFromContainer(BootProfile.PROFILE_FILE, BootProfile::read);
+            StringBuilder report = new StringBuilder();
+            profile.getProblemPhases().forEach(it -> report.append("\n    ").append(it));
+            return report.toString();
+        } catch (Exception e) {
+            // Отчёт не должен подменять исходную ошибку старта: файла может не быть, контейнер может быть удалён
+            LOGGER.debug("Can't read the boot profile", e);
+            return "";
+        }
+    }
+}
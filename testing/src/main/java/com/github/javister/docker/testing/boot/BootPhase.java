@@ -0,0 +1,153 @@
+package com.github.javister.docker.testing.boot;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.time.Duration;
+import java.util.Locale;
+
+/**
+ * Фаза старта контейнера, замеренная {@code my_init}: выполнение стартового скрипта, запуск runit или выход
+ * сервиса runit в состояние {@code run}.
+ *
+ * <p>Времена начала и окончания фазы отсчитываются в секундах от старта {@code my_init} по монотонным часам.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class BootPhase {
+    private final Type type;
+    private final String name;
+    private final double start;
+    private final Double end;
+    private final Integer status;
+
+    @JsonCreator
+    public BootPhase(
+            @JsonProperty("type") @Nullable String type,
+            @JsonProperty("name") @Nullable String name,
+            @JsonProperty("start") double start,
+            @JsonProperty("end") @Nullable Double end,
+            @JsonProperty("status") @Nullable Integer status) {
+        this.type = Type.parse(type);
+        this.name = name != null ? name : "";
+        this.start = start;
+        this.end = end;
+        this.status = status;
+    }
+
+    @NotNull
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * Имя фазы: путь к стартовому скрипту или имя сервиса runit.
+     *
+     * @return имя фазы.
+     */
+    @NotNull
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Время начала фазы в секундах от старта {@code my_init}.
+     *
+     * @return время начала фазы.
+     */
+    public double getStart() {
+        return start;
+    }
+
+    /**
+     * Время окончания фазы в секундах от старта {@code my_init}.
+     *
+     * @return время окончания фазы или null, если фаза не завершилась.
+     */
+    @Nullable
+    public Double getEnd() {
+        return end;
+    }
+
+    /**
+     * Код завершения стартового скрипта.
+     *
+     * @return код завершения или null, если фаза не завершилась или код неизвестен.
+     */
+    @Nullable
+    public Integer getStatus() {
+        return status;
+    }
+
+    /**
+     * Признак завершения фазы.
+     *
+     * @return true, если фаза завершилась.
+     */
+    public boolean isFinished() {
+        return end != null;
+    }
+
+    /**
+     * Признак неуспешного завершения фазы.
+     *
+     * @return true, если фаза завершилась с ненулевым кодом, либо завершилась с неизвестным кодом.
+     */
+    public boolean isFailed() {
+        return end != null && (status == null || status != 0);
+    }
+
+    /**
+     * Длительность фазы.
+     *
+     * @return длительность фазы или null, если фаза не завершилась.
+     */
+    @Nullable
+    public Duration getDuration() {
+        return end != null ? Duration.ofMillis(Math.round((end - start) * 1000)) : null;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT, "%s %s: %s", type.name().toLowerCase(Locale.ROOT), name,
+                end != null
+                        ? String.format(Locale.ROOT, "%.3fs", end - start) + (isFailed() ? " (failed, status " + status + ")" : "")
+                        : "not finished");
+    }
+
+    /**
+     * Виды фаз старта контейнера.
+     */
+    public enum Type {
+        /**
+         * Выполнение стартового скрипта из {@code /etc/my_init.d} или {@code /etc/rc.local}.
+         */
+        SCRIPT,
+        /**
+         * Запуск демона runit.
+         */
+        RUNIT,
+        /**
+         * Выход сервиса runit в состояние {@code run}.
+         */
+        SERVICE,
+        /**
+         * Фаза неизвестного вида (профиль записан более новой версией {@code my_init}).
+         */
+        UNKNOWN;
+
+        @NotNull
+        static Type parse(@Nullable String type) {
+            if (type == null) {
+                return UNKNOWN;
+            }
+            try {
+                return valueOf(type.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                return UNKNOWN;
+            }
+        }
+    }
+}
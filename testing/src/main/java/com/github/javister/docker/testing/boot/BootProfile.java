@@ -0,0 +1,154 @@
+package com.github.javister.docker.testing.boot;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Профиль старта контейнера, записываемый {@code my_init} в файл {@value #PROFILE_FILE}.
+ *
+ * <p>Содержит длительности выполнения стартовых скриптов, запуска runit и выхода сервисов runit в состояние
+ * {@code run}. Позволяет найти фазы, замедляющие старт контейнера.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class BootProfile {
+    /**
+     * Путь к файлу профиля старта внутри контейнера.
+     */
+    public static final String PROFILE_FILE = "/run/my_init/boot.json";
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final double started;
+    private final boolean complete;
+    private final List<BootPhase> phases;
+
+    @JsonCreator
+    public BootProfile(
+            @JsonProperty("started") double started,
+            @JsonProperty("complete") boolean complete,
+            @JsonProperty("phases") @Nullable List<BootPhase> phases) {
+        this.started = started;
+        this.complete = complete;
+        this.phases = phases != null ? Collections.unmodifiableList(new ArrayList<>(phases)) : Collections.emptyList();
+    }
+
+    /**
+     * Чтение профиля старта из потока.
+     *
+     * @param stream поток с содержимым файла профиля.
+     * @return профиль старта.
+     * @throws IOException в случае ошибки чтения или разбора профиля.
+     */
+    @NotNull
+    public static BootProfile read(@NotNull InputStream stream) throws IOException {
+        return MAPPER.readValue(stream, BootProfile.class);
+    }
+
+    /**
+     * Время старта {@code my_init}.
+     *
+     * @return время старта {@code my_init}.
+     */
+    @NotNull
+    public Instant getStarted() {
+        return Instant.ofEpochMilli(Math.round(started * 1000));
+    }
+
+    /**
+     * Признак полноты профиля.
+     *
+     * @return true, если старт контейнера завершён (успешно или нет) и профиль больше не будет меняться.
+     */
+    public boolean isComplete() {
+        return complete;
+    }
+
+    @NotNull
+    public List<BootPhase> getPhases() {
+        return phases;
+    }
+
+    /**
+     * Общая длительность старта: от старта {@code my_init} до окончания последней завершившейся фазы.
+     *
+     * @return общая длительность старта.
+     */
+    @NotNull
+    public Duration getTotalDuration() {
+        double end = 0;
+        for (BootPhase phase : phases) {
+            if (phase.getEnd() != null && phase.getEnd() > end) {
+                end = phase.getEnd();
+            }
+        }
+        return Duration.ofMillis(Math.round(end * 1000));
+    }
+
+    /**
+     * Получение самых долгих завершившихся фаз старта.
+     *
+     * @param limit максимальное количество фаз.
+     * @return фазы в порядке убывания длительности.
+     */
+    @NotNull
+    public List<BootPhase> getSlowestPhases(int limit) {
+        return phases.stream()
+                .filter(BootPhase::isFinished)
+                .sorted(Comparator.comparing(BootPhase::getDuration).reversed())
+                .limit(limit)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Получение фаз, завершившихся неуспешно или не завершившихся вовсе.
+     *
+     * @return неуспешные фазы.
+     */
+    @NotNull
+    public List<BootPhase> getProblemPhases() {
+        return phases.stream()
+                .filter(it -> it.isFailed() || !it.isFinished())
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Формирование текстового отчёта о старте контейнера.
+     *
+     * @param limit максимальное количество самых долгих фаз в отчёте.
+     * @return текстовый отчёт.
+     */
+    @NotNull
+    public String formatReport(int limit) {
+        StringBuilder report = new StringBuilder("Boot ")
+                .append(complete ? "completed" : "in progress")
+                .append(" in ")
+                .append(getTotalDuration().toMillis())
+                .append(" ms. Slowest phases:");
+        getSlowestPhases(limit).forEach(it -> report.append("\n    ").append(it));
+        List<BootPhase> problems = getProblemPhases();
+        if (!problems.isEmpty()) {
+            report.append("\nProblem phases:");
+            problems.forEach(it -> report.append("\n    ").append(it));
+        }
+        return report.toString();
+    }
+
+    @Override
+    public String toString() {
+        return formatReport(phases.size());
+    }
+}
@@ -0,0 +1,46 @@
+package com.github.javister.docker.testing.boot;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Состояния старта контейнера, публикуемые {@code my_init} в файле {@code /run/my_init/state}.
+ */
+public enum BootState {
+    /**
+     * {@code my_init} запущен и выполняет стартовые скрипты.
+     */
+    STARTING("starting"),
+    /**
+     * Стартовые скрипты выполнены.
+     */
+    SCRIPTS_DONE("scripts-done"),
+    /**
+     * Запущен демон runit.
+     */
+    RUNIT_STARTED("runit-started"),
+    /**
+     * Все сервисы runit, не отключенные файлом {@code down}, перешли в состояние {@code run}.
+     */
+    ALL_SERVICES_UP("all-services-up"),
+    /**
+     * Старт контейнера завершился ошибкой: стартовый скрипт завершился с ненулевым кодом или сервисы не запустились
+     * за отведённое время.
+     */
+    FAILED("failed");
+
+    private final String stateName;
+
+    BootState(String stateName) {
+        this.stateName = stateName;
+    }
+
+    /**
+     * Имя состояния в файле состояния {@code my_init}.
+     *
+     * @return имя состояния.
+     */
+    @NotNull
+    public String getStateName() {
+        return stateName;
+    }
+}
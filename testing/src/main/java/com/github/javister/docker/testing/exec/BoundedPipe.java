@@ -0,0 +1,102 @@
+package com.github.javister.docker.testing.exec;
+
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+
+/**
+ * Канал фиксированного размера между потоком, читающим вывод команды из Docker, и потребителем вывода.
+ *
+ * <p>В отличие от {@link java.io.PipedInputStream}, не привязан к конкретным потокам: запись блокируется, пока
+ * в буфере нет места, а после закрытия читающей стороны данные отбрасываются.
+ */
+final class BoundedPipe {
+    private final byte[] buffer;
+    private int readPosition;
+    private int count;
+    private boolean writerClosed;
+    private boolean readerClosed;
+
+    BoundedPipe(int size) {
+        this.buffer = new byte[size];
+    }
+
+    synchronized void write(byte[] bytes, int offset, int length) throws InterruptedIOException {
+        while (length > 0) {
+            while (count == buffer.length && !readerClosed) {
+                await();
+            }
+            if (readerClosed) {
+                return;
+            }
+            int writePosition = (readPosition + count) % buffer.length;
+            int chunk = Math.min(length, Math.min(buffer.length - count, buffer.length - writePosition));
+            System.arraycopy(bytes, offset, buffer, writePosition, chunk);
+            count += chunk;
+            offset += chunk;
+            length -= chunk;
+            notifyAll();
+        }
+    }
+
+    synchronized void closeWriter() {
+        writerClosed = true;
+        notifyAll();
+    }
+
+    InputStream getInputStream() {
+        return new InputStream() {
+            private final byte[] single = new byte[1];
+
+            @Override
+            public int read() throws InterruptedIOException {
+                return read(single, 0, 1) < 0 ? -1 : single[0] & 0xFF;
+            }
+
+            @Override
+            public int read(byte[] bytes, int offset, int length) throws InterruptedIOException {
+                if (length == 0) {
+                    return 0;
+                }
+                synchronized (BoundedPipe.this) {
+                    while (count == 0 && !writerClosed && !readerClosed) {
+                        await();
+                    }
+                    if (count == 0) {
+                        return -1;
+                    }
+                    int chunk = Math.min(length, Math.min(count, buffer.length - readPosition));
+                    System.arraycopy(buffer, readPosition, bytes, offset, chunk);
+                    readPosition = (readPosition + chunk) % buffer.length;
+                    count -= chunk;
+                    BoundedPipe.this.notifyAll();
+                    return chunk;
+                }
+            }
+
+            @Override
+            public int available() {
+                synchronized (BoundedPipe.this) {
+                    return count;
+                }
+            }
+
+            @Override
+            public void close() {
+                synchronized (BoundedPipe.this) {
+                    readerClosed = true;
+                    count = 0;
+                    BoundedPipe.this.notifyAll();
+                }
+            }
+        };
+    }
+
+    private void await() throws InterruptedIOException {
+        try {
+            wait();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for the exec output");
+        }
+    }
+}
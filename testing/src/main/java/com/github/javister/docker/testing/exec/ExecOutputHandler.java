@@ -0,0 +1,32 @@
+package com.github.javister.docker.testing.exec;
+
+import org.jetbrains.annotations.NotNull;
+import org.testcontainers.containers.output.OutputFrame;
+
+import java.io.IOException;
+
+/**
+ * Обработчик вывода команды, выполняемой внутри контейнера (см. {@link ExecStreaming}).
+ *
+ * <p>Методы вызываются из потока, читающего вывод команды из Docker. Пока обработчик не вернул управление, чтение
+ * вывода приостанавливается, так что медленный обработчик притормаживает команду, а не накапливает её вывод в памяти.
+ */
+@FunctionalInterface
+public interface ExecOutputHandler {
+    /**
+     * Обработка очередной порции вывода команды.
+     *
+     * @param type  поток вывода: stdout или stderr.
+     * @param chunk порция вывода.
+     * @throws IOException в случае ошибки обработки. Выполнение команды при этом прерывается.
+     */
+    void onOutput(@NotNull OutputFrame.OutputType type, @NotNull byte[] chunk) throws IOException;
+
+    /**
+     * Вызывается однократно по окончании вывода команды, в том числе в случае ошибки.
+     *
+     * @throws IOException в случае ошибки обработки.
+     */
+    default void onEnd() throws IOException {
+    }
+}
@@ -0,0 +1,104 @@
+package com.github.javister.docker.testing.exec;
+
+import org.jetbrains.annotations.NotNull;
+import org.testcontainers.containers.output.OutputFrame;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Вывод выполняемой внутри контейнера команды в виде потоков {@link InputStream}.
+ *
+ * <p>Вывод буферизуется в буферах фиксированного размера: пока потребитель не прочитал данные, чтение вывода
+ * команды приостанавливается. Поэтому потоки stdout и stderr необходимо читать параллельно, либо закрыть ненужный
+ * поток - после закрытия его данные отбрасываются.
+ */
+public class ExecStream implements AutoCloseable {
+    /**
+     * Размер буфера каждого из потоков вывода по умолчанию.
+     */
+    public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+    private final BoundedPipe stdout;
+    private final BoundedPipe stderr;
+    private final InputStream stdoutStream;
+    private final InputStream stderrStream;
+    private CompletableFuture<Integer> exitCode;
+
+    public ExecStream() {
+        this(DEFAULT_BUFFER_SIZE);
+    }
+
+    public ExecStream(int bufferSize) {
+        this.stdout = new BoundedPipe(bufferSize);
+        this.stderr = new BoundedPipe(bufferSize);
+        this.stdoutStream = stdout.getInputStream();
+        this.stderrStream = stderr.getInputStream();
+    }
+
+    /**
+     * Обработчик вывода команды, передающий вывод в потоки данного объекта.
+     *
+     * @return обработчик вывода команды.
+     */
+    @NotNull
+    public ExecOutputHandler getHandler() {
+        return new ExecOutputHandler() {
+            @Override
+            public void onOutput(@NotNull OutputFrame.OutputType type, @NotNull byte[] chunk) throws IOException {
+                (type == OutputFrame.OutputType.STDERR ? stderr : stdout).write(chunk, 0, chunk.length);
+            }
+
+            @Override
+            public void onEnd() {
+                stdout.closeWriter();
+                stderr.closeWriter();
+            }
+        };
+    }
+
+    /**
+     * Связывает объект с выполняемой командой.
+     *
+     * @param exitCode фьючерс кода завершения команды.
+     * @return возвращает this для fluent API.
+     */
+    @NotNull
+    public ExecStream withExitCode(@NotNull CompletableFuture<Integer> exitCode) {
+        this.exitCode = exitCode;
+        return this;
+    }
+
+    @NotNull
+    public InputStream getStdout() {
+        return stdoutStream;
+    }
+
+    @NotNull
+    public InputStream getStderr() {
+        return stderrStream;
+    }
+
+    /**
+     * Код завершения команды.
+     *
+     * @return фьючерс кода завершения команды.
+     */
+    @NotNull
+    public CompletableFuture<Integer> getExitCode() {
+        return exitCode;
+    }
+
+    /**
+     * Прекращает чтение вывода команды. Процесс внутри контейнера при этом не завершается.
+     */
+    @Override
+    public void close() throws IOException {
+        stdoutStream.close();
+        stderrStream.close();
+        if (exitCode != null) {
+            exitCode.cancel(false);
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package com.github.javister.docker.testing.exec;
+
+import com.github.dockerjava.api.DockerClient;
+import com.github.dockerjava.api.async.ResultCallback;
+import com.github.dockerjava.api.command.ExecCreateCmdResponse;
+import com.github.dockerjava.api.command.ExecStartCmd;
+import com.github.dockerjava.api.command.InspectExecResponse;
+import com.github.dockerjava.api.model.Frame;
+import com.github.dockerjava.api.model.StreamType;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.testcontainers.containers.output.OutputFrame;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Потоковое выполнение команд внутри контейнера.
+ *
+ * <p>В отличие от {@code execInContainer}, вывод команды не накапливается в памяти, а передаётся обработчику
+ * порциями по мере поступления. Код завершения команды возвращается асинхронно.
+ */
+public final class ExecStreaming {
+    private static final int EXIT_CODE_POLL_ATTEMPTS = 100;
+    private static final long EXIT_CODE_POLL_INTERVAL_MILLIS = 10;
+
+    private ExecStreaming() {
+    }
+
+    /**
+     * Запуск команды внутри контейнера.
+     *
+     * <p>Отмена возвращаемого фьючерса прекращает чтение вывода команды, но не завершает сам процесс в контейнере.
+     *
+     * @param client      клиент Docker.
+     * @param containerId идентификатор контейнера.
+     * @param stdin       данные, передаваемые на stdin команды, или null, если stdin команде не нужен.
+     * @param handler     обработчик вывода команды.
+     * @param command     команда и её аргументы.
+     * @return фьючерс кода завершения команды.
+     */
+    @NotNull
+    public static CompletableFuture<Integer> start(
+            @NotNull DockerClient client,
+            @Nullable String containerId,
+            @Nullable InputStream stdin,
+            @NotNull ExecOutputHandler handler,
+            @NotNull String... command) {
+        if (containerId == null) {
+            throw new IllegalStateException("Exec command is not supported for not started container");
+        }
+        ExecCreateCmdResponse exec = client.execCreateCmd(containerId)
+                .withCmd(command)
+                .withAttachStdout(true)
+                .withAttachStderr(true)
+                .withAttachStdin(stdin != null)
+                .exec();
+        ExecCallback callback = new ExecCallback(client, exec.getId(), handler);
+        ExecStartCmd startCmd = client.execStartCmd(exec.getId());
+        if (stdin != null) {
+            startCmd.withStdIn(stdin);
+        }
+        startCmd.exec(callback);
+        return callback.result;
+    }
+
+    private static class ExecCallback extends ResultCallback.Adapter<Frame> {
+        private final DockerClient client;
+        private final String execId;
+        private final ExecOutputHandler handler;
+        private final AtomicBoolean ended = new AtomicBoolean();
+        private final CompletableFuture<Integer> result = new CompletableFuture<Integer>() {
+            @Override
+            public boolean cancel(boolean mayInterruptIfRunning) {
+                boolean cancelled = super.cancel(mayInterruptIfRunning);
+                if (cancelled) {
+                    closeQuietly();
+                }
+                return cancelled;
+            }
+        };
+
+        ExecCallback(DockerClient client, String execId, ExecOutputHandler handler) {
+            this.client = client;
+            this.execId = execId;
+            this.handler = handler;
+        }
+
+        @Override
+        public void onNext(Frame frame) {
+            if (result.isDone()) {
+                return;
+            }
+            OutputFrame.OutputType type = frame.getStreamType() == StreamType.STDERR
+                    ? OutputFrame.OutputType.STDERR
+                    : OutputFrame.OutputType.STDOUT;
+            try {
+                handler.onOutput(type, frame.getPayload());
+            } catch (IOException | RuntimeException e) {
+                fail(e);
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            fail(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            super.onComplete();
+            try {
+                end();
+                result.complete(getExitCode());
+            } catch (IOException | RuntimeException e) {
+                result.completeExceptionally(e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                result.completeExceptionally(e);
+            }
+        }
+
+        private void fail(Throwable throwable) {
+            result.completeExceptionally(throwable);
+            closeQuietly();
+            try {
+                end();
+            } catch (IOException | RuntimeException e) {
+                throwable.addSuppressed(e);
+            }
+        }
+
+        private void end() throws IOException {
+            if (ended.compareAndSet(false, true)) {
+                handler.onEnd();
+            }
+        }
+
+        private void closeQuietly() {
+            try {
+                close();
+            } catch (IOException e) {
+                // Поток вывода уже закрыт
+            }
+        }
+
+        @Nullable
+        private Integer getExitCode() throws InterruptedException {
+            InspectExecResponse response = client.inspectExecCmd(execId).exec();
+            for (int i = 0; Boolean.TRUE.equals(response.isRunning()) && i < EXIT_CODE_POLL_ATTEMPTS; i++) {
+                // Вывод уже закрыт, но Docker ещё не зафиксировал завершение процесса
+                Thread.sleep(EXIT_CODE_POLL_INTERVAL_MILLIS);
+                response = client.inspectExecCmd(execId).exec();
+            }
+            Long exitCode = response.getExitCodeLong();
+            return exitCode != null ? exitCode.intValue() : null;
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.github.javister.docker.testing.exec;
+
+import org.jetbrains.annotations.NotNull;
+import org.testcontainers.containers.output.OutputFrame;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Обработчик вывода команды, разбивающий вывод на строки.
+ *
+ * <p>Буферы байт и символов переиспользуются между строками, поэтому передаваемая обработчику строка действительна
+ * только на время вызова {@link LineHandler#onLine(OutputFrame.OutputType, CharSequence)}. Если строку необходимо
+ * сохранить, то её нужно скопировать с помощью {@code toString()}.
+ */
+public class LineDecoder implements ExecOutputHandler {
+    private static final int INITIAL_BUFFER_SIZE = 256;
+
+    private final LineHandler handler;
+    private final LineBuffer stdout;
+    private final LineBuffer stderr;
+
+    public LineDecoder(@NotNull LineHandler handler) {
+        this(handler, StandardCharsets.UTF_8);
+    }
+
+    public LineDecoder(@NotNull LineHandler handler, @NotNull Charset charset) {
+        this.handler = handler;
+        this.stdout = new LineBuffer(OutputFrame.OutputType.STDOUT, charset);
+        this.stderr = new LineBuffer(OutputFrame.OutputType.STDERR, charset);
+    }
+
+    @Override
+    public void onOutput(@NotNull OutputFrame.OutputType type, @NotNull byte[] chunk) throws IOException {
+        (type == OutputFrame.OutputType.STDERR ? stderr : stdout).append(chunk);
+    }
+
+    @Override
+    public void onEnd() throws IOException {
+        stdout.flush();
+        stderr.flush();
+    }
+
+    /**
+     * Обработчик строк вывода команды.
+     */
+    @FunctionalInterface
+    public interface LineHandler {
+        /**
+         * Обработка строки вывода команды.
+         *
+         * @param type поток вывода: stdout или stderr.
+         * @param line строка без символов перевода строки. Действительна только на время вызова.
+         * @throws IOException в случае ошибки обработки. Выполнение команды при этом прерывается.
+         */
+        void onLine(@NotNull OutputFrame.OutputType type, @NotNull CharSequence line) throws IOException;
+    }
+
+    private class LineBuffer {
+        private final OutputFrame.OutputType type;
+        private final CharsetDecoder decoder;
+        private byte[] bytes = new byte[INITIAL_BUFFER_SIZE];
+        private int length;
+        private CharBuffer chars = CharBuffer.allocate(INITIAL_BUFFER_SIZE);
+
+        LineBuffer(OutputFrame.OutputType type, Charset charset) {
+            this.type = type;
+            this.decoder = charset.newDecoder()
+                    .onMalformedInput(CodingErrorAction.REPLACE)
+                    .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        }
+
+        void append(byte[] chunk) throws IOException {
+            int start = 0;
+            for (int i = 0; i < chunk.length; i++) {
+                if (chunk[i] == '\n') {
+                    add(chunk, start, i - start);
+                    emit();
+                    start = i + 1;
+                }
+            }
+            add(chunk, start, chunk.length - start);
+        }
+
+        void flush() throws IOException {
+            if (length > 0) {
+                emit();
+            }
+        }
+
+        private void add(byte[] chunk, int offset, int count) {
+            if (count == 0) {
+                return;
+            }
+            if (length + count > bytes.length) {
+                byte[] grown = new byte[Math.max(bytes.length * 2, length + count)];
+                System.arraycopy(bytes, 0, grown, 0, length);
+                bytes = grown;
+            }
+            System.arraycopy(chunk, offset, bytes, length, count);
+            length += count;
+        }
+
+        private void emit() throws IOException {
+            int end = length;
+            if (end > 0 && bytes[end - 1] == '\r') {
+                end--;
+            }
+            int required = (int) Math.ceil(end * (double) decoder.maxCharsPerByte());
+            if (chars.capacity() < required) {
+                chars = CharBuffer.allocate(required);
+            }
+            chars.clear();
+            decoder.reset();
+            ByteBuffer input = ByteBuffer.wrap(bytes, 0, end);
+            decoder.decode(input, chars, true);
+            decoder.flush(chars);
+            chars.flip();
+            length = 0;
+            handler.onLine(type, chars);
+        }
+    }
+}
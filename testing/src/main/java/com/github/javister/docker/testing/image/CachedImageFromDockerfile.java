@@ -0,0 +1,278 @@
+package com.github.javister.docker.testing.image;
+
+import com.github.javister.docker.testing.AsyncSupport;
+import com.github.javister.docker.testing.TestRunException;
+import com.github.dockerjava.api.DockerClient;
+import com.github.dockerjava.api.model.Image;
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testcontainers.DockerClientFactory;
+import org.testcontainers.images.builder.ImageFromDockerfile;
+import org.testcontainers.images.builder.Transferable;
+import org.testcontainers.images.builder.traits.BuildContextBuilderTrait;
+import org.testcontainers.images.builder.traits.ClasspathTrait;
+import org.testcontainers.images.builder.traits.DockerfileTrait;
+import org.testcontainers.images.builder.traits.FilesTrait;
+import org.testcontainers.images.builder.traits.StringsTrait;
+import org.testcontainers.utility.DockerImageName;
+import org.testcontainers.utility.LazyFuture;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.zip.Checksum;
+
+/**
+ * Описание вспомогательного тестового образа, собираемого по Dockerfile, с кэшированием результата сборки
+ * в локальном демоне Docker.
+ *
+ * <p>Из текста Dockerfile, аргументов сборки и содержимого всех файлов контекста сборки вычисляется хэш,
+ * который используется как тег образа: {@code javister-test/<имя>:<хэш>}. Если образ с таким тегом уже есть
+ * в локальном демоне, сборка пропускается. В отличие от {@link ImageFromDockerfile} образ не удаляется по
+ * завершении тестов и переиспользуется следующими запусками, пока не изменится его содержимое. Предыдущие сборки
+ * образа по умолчанию сохраняются: образы с одним именем, но разными аргументами сборки, или собранные разными
+ * ветками на одном демоне Docker, иначе вытесняли бы друг друга. Удаление давних сборок включается методом
+ * {@link #withPruneOlderThan(Duration)}.
+ *
+ * <p>Используется вместо {@link ImageFromDockerfile} в конструкторах контейнеров:
+ * <pre>{@code
+ * new GenericContainer<>(
+ *         new CachedImageFromDockerfile("test-app")
+ *                 .withFileFromFile("app.jar", appJar)
+ *                 .withDockerfileFromBuilder(builder -> builder
+ *                         .from("bellsoft/liberica-openjre-alpine:8")
+ *                         .add("app.jar", "/app.jar")
+ *                         .build()))
+ * }</pre>
+ */
+public class CachedImageFromDockerfile extends LazyFuture<String> implements
+        BuildContextBuilderTrait<CachedImageFromDockerfile>,
+        ClasspathTrait<CachedImageFromDockerfile>,
+        FilesTrait<CachedImageFromDockerfile>,
+        StringsTrait<CachedImageFromDockerfile>,
+        DockerfileTrait<CachedImageFromDockerfile> {
+    private static final Logger LOGGER = LoggerFactory.getLogger(CachedImageFromDockerfile.class);
+    private static final String REPOSITORY_PREFIX = "javister-test/";
+    private static final int TAG_LENGTH = 16;
+
+    /**
+     * Блокировки сборки по именам образов: одинаковые образы, описанные в разных тестах, собираются один раз.
+     */
+    private static final Map<String, Object> BUILD_LOCKS = new ConcurrentHashMap<>();
+    /**
+     * Образы, полученные в этой JVM: они могут использоваться ещё не запущенными контейнерами и не удаляются.
+     */
+    private static final Set<String> RESOLVED_IMAGES = ConcurrentHashMap.newKeySet();
+
+    private final String name;
+    private final Map<String, Transferable> transferables = new TreeMap<>();
+    private final Map<String, String> buildArgs = new TreeMap<>();
+    private Duration pruneAge;
+
+    /**
+     * Создаёт описание образа.
+     *
+     * @param name имя образа без репозитория и тега, например {@code test-app}.
+     */
+    public CachedImageFromDockerfile(@NotNull String name) {
+        this.name = name;
+    }
+
+    /**
+     * Параллельная сборка нескольких образов. Вызывается в начале набора тестов, чтобы образы не собирались
+     * последовательно при старте контейнеров.
+     *
+     * @param images описания образов.
+     * @throws TestRunException в случае ошибки сборки любого из образов.
+     */
+    public static void buildAll(@NotNull CachedImageFromDockerfile... images) {
+        List<CompletableFuture<String>> builds = new ArrayList<>();
+        for (CachedImageFromDockerfile image : images) {
+            builds.add(AsyncSupport.supplyAsync(image::get));
+        }
+        try {
+            CompletableFuture.allOf(builds.toArray(new CompletableFuture<?>[0])).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TestRunException("Interrupted while building test images", e);
+        } catch (ExecutionException e) {
+            throw new TestRunException("Can't build test images", e.getCause());
+        }
+    }
+
+    @Override
+    public CachedImageFromDockerfile withFileFromTransferable(String path, Transferable transferable) {
+        transferables.put(path, transferable);
+        return this;
+    }
+
+    /**
+     * Добавление аргумента сборки.
+     *
+     * @param key   имя аргумента.
+     * @param value значение аргумента.
+     * @return this
+     */
+    public CachedImageFromDockerfile withBuildArg(@NotNull String key, @NotNull String value) {
+        buildArgs.put(key, value);
+        return this;
+    }
+
+    /**
+     * Включает удаление давних сборок образа после сборки его новой версии: тегов того же репозитория
+     * {@code javister-test/<имя>}, собранных раньше заданного времени назад. Недавние сборки не удаляются, так как
+     * они могут использоваться параллельными запусками тестов с другим содержимым образа.
+     *
+     * @param age возраст сборки, после которого она удаляется.
+     * @return this
+     */
+    public CachedImageFromDockerfile withPruneOlderThan(@NotNull Duration age) {
+        this.pruneAge = age;
+        return this;
+    }
+
+    /**
+     * Вычисление имени образа с тегом по содержимому контекста сборки. При каждом вызове содержимое файлов
+     * читается заново.
+     *
+     * @return имя образа с тегом.
+     */
+    @NotNull
+    public String getDockerImageName() {
+        return REPOSITORY_PREFIX + name + ":" + computeHash().substring(0, TAG_LENGTH);
+    }
+
+    @Override
+    protected String resolve() {
+        String imageName = getDockerImageName();
+        synchronized (BUILD_LOCKS.computeIfAbsent(imageName, key -> new Object())) {
+            RESOLVED_IMAGES.add(imageName);
+            if (LocalImageRegistry.getInstance().contains(DockerImageName.parse(imageName))) {
+                LOGGER.debug("Image {} is up to date, skipping the build", imageName);
+                return imageName;
+            }
+            LOGGER.info("Building image {}", imageName);
+            ImageFromDockerfile image = new ImageFromDockerfile(imageName, false);
+            transferables.forEach(image::withFileFromTransferable);
+            image.withBuildArgs(buildArgs);
+            String result = image.get();
+            LOGGER.info("Image {} is built", imageName);
+            if (pruneAge != null) {
+                removeOutdatedTags();
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Удаление давних сборок образа: тегов того же репозитория {@code javister-test/<имя>}, отличных от текущего и
+     * собранных раньше {@link #pruneAge} назад. Образы, занятые контейнерами или полученные в этой JVM, пропускаются.
+     */
+    private void removeOutdatedTags() {
+        String repository = REPOSITORY_PREFIX + name;
+        DockerClient client = DockerClientFactory.lazyClient();
+        List<Image> images;
+        try {
+            images = client.listImagesCmd().withReferenceFilter(repository).exec();
+        } catch (RuntimeException e) {
+            LOGGER.debug("Can't list the outdated builds of {}", repository, e);
+            return;
+        }
+        long createdBefore = Instant.now().minus(pruneAge).getEpochSecond();
+        for (Image image : images) {
+            if (image.getRepoTags() == null || image.getCreated() == null || image.getCreated() > createdBefore) {
+                continue;
+            }
+            for (String repoTag : image.getRepoTags()) {
+                if (!repoTag.startsWith(repository + ":") || RESOLVED_IMAGES.contains(repoTag)) {
+                    continue;
+                }
+                try {
+                    client.removeImageCmd(repoTag).exec();
+                    LOGGER.debug("Outdated image {} is removed", repoTag);
+                } catch (RuntimeException e) {
+                    LOGGER.debug("Can't remove the outdated image {}", repoTag, e);
+                }
+            }
+        }
+    }
+
+    @NotNull
+    String computeHash() {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not supported", e);
+        }
+        DigestChecksum checksum = new DigestChecksum(digest);
+        // Контекст сборки и аргументы упорядочены по именам, поэтому хэш не зависит от порядка их добавления
+        for (Map.Entry<String, Transferable> entry : transferables.entrySet()) {
+            update(digest, entry.getKey());
+            update(digest, Integer.toOctalString(entry.getValue().getFileMode()));
+            try {
+                entry.getValue().updateChecksum(checksum);
+            } catch (UnsupportedOperationException e) {
+                // Файлы из строк и Dockerfile из DockerfileBuilder отдают содержимое только целиком
+                digest.update(entry.getValue().getBytes());
+            }
+        }
+        for (Map.Entry<String, String> entry : buildArgs.entrySet()) {
+            update(digest, entry.getKey());
+            update(digest, entry.getValue());
+        }
+        StringBuilder result = new StringBuilder();
+        for (byte b : digest.digest()) {
+            result.append(String.format("%02x", b));
+        }
+        return result.toString();
+    }
+
+    private static void update(MessageDigest digest, String value) {
+        digest.update(value.getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+    }
+
+    /**
+     * Адаптер {@link MessageDigest} к {@link Checksum}, через который {@link Transferable} сообщает своё
+     * содержимое, включая содержимое каталогов.
+     */
+    private static class DigestChecksum implements Checksum {
+        private final MessageDigest digest;
+
+        DigestChecksum(MessageDigest digest) {
+            this.digest = digest;
+        }
+
+        @Override
+        public void update(int b) {
+            digest.update((byte) b);
+        }
+
+        @Override
+        public void update(byte[] b, int off, int len) {
+            digest.update(b, off, len);
+        }
+
+        @Override
+        public long getValue() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void reset() {
+            digest.reset();
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.github.javister.docker.testing.image;
+
+import org.jetbrains.annotations.NotNull;
+import org.testcontainers.images.ImagePullPolicy;
+import org.testcontainers.images.PullPolicy;
+import org.testcontainers.utility.DockerImageName;
+
+/**
+ * Политика скачивания образа, сверяющая идентификатор образа из метаданных обёртки
+ * (см. {@link com.github.javister.docker.testing.base.JavisterBaseContainer#getImageId(Class, String)})
+ * со списком образов локального демона Docker.
+ *
+ * <p>Если образ с точно таким идентификатором уже доступен локально под нужным именем, он не скачивается
+ * и не запрашивается повторно через {@code docker inspect}. Иначе решение принимает политика по умолчанию
+ * testcontainers.
+ */
+public class ImageIdPullPolicy implements ImagePullPolicy {
+    private final String imageId;
+    private final ImagePullPolicy fallback;
+
+    /**
+     * Создаёт политику скачивания.
+     *
+     * @param imageId ожидаемый идентификатор образа.
+     */
+    public ImageIdPullPolicy(@NotNull String imageId) {
+        this(imageId, PullPolicy.defaultPolicy());
+    }
+
+    /**
+     * Создаёт политику скачивания.
+     *
+     * @param imageId  ожидаемый идентификатор образа.
+     * @param fallback политика, применяемая если образа с ожидаемым идентификатором нет локально.
+     */
+    public ImageIdPullPolicy(@NotNull String imageId, @NotNull ImagePullPolicy fallback) {
+        this.imageId = imageId;
+        this.fallback = fallback;
+    }
+
+    @Override
+    public boolean shouldPull(DockerImageName imageName) {
+        return !LocalImageRegistry.getInstance().contains(imageId, imageName) && fallback.shouldPull(imageName);
+    }
+
+    @NotNull
+    public String getImageId() {
+        return imageId;
+    }
+}
@@ -0,0 +1,188 @@
+package com.github.javister.docker.testing.image;
+
+import com.github.javister.docker.testing.AsyncSupport;
+import com.github.javister.docker.testing.base.JavisterBaseContainer;
+import com.github.javister.docker.testing.base.JavisterBaseContainerImpl;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.junit.platform.commons.support.AnnotationSupport;
+import org.junit.platform.commons.support.HierarchyTraversalMode;
+import org.junit.platform.commons.support.ReflectionSupport;
+import org.junit.platform.engine.TestSource;
+import org.junit.platform.engine.support.descriptor.ClassSource;
+import org.junit.platform.engine.support.descriptor.MethodSource;
+import org.junit.platform.launcher.LauncherSession;
+import org.junit.platform.launcher.LauncherSessionListener;
+import org.junit.platform.launcher.TestExecutionListener;
+import org.junit.platform.launcher.TestIdentifier;
+import org.junit.platform.launcher.TestPlan;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testcontainers.DockerClientFactory;
+import org.testcontainers.images.RemoteDockerImage;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.utility.DockerImageName;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Слушатель сессии JUnit Platform, заранее и параллельно скачивающий образы контейнеров перед запуском тестов.
+ *
+ * <p>Образы определяются по типам полей тестовых классов с аннотацией {@link Container}, реализующим
+ * {@link JavisterBaseContainer}: имя и идентификатор образа берутся из метаданных обёртки
+ * (см. {@link JavisterBaseContainer#getImageName(Class, String)}). Учитываются только поля конкретных обёрток:
+ * поле, объявленное интерфейсом, абстрактным классом или базовой {@link JavisterBaseContainerImpl}, может содержать
+ * контейнер с любым образом, например собираемым {@link CachedImageFromDockerfile}, и пропускается. Образы, уже доступные локально с ожидаемым
+ * идентификатором, не скачиваются (см. {@link ImageIdPullPolicy}). Ошибки скачивания, например при работе без
+ * доступа к реестру, только логируются: образ будет запрошен повторно при старте контейнера.
+ *
+ * <p>Слушатель регистрируется автоматически через {@code META-INF/services}. Управляется системными свойствами:
+ * <ul>
+ *     <li>{@code javister.image.prepull} - {@code false} отключает предварительное скачивание;</li>
+ *     <li>{@code javister.image.prepull.concurrency} - максимальное число одновременных скачиваний, по умолчанию 4.</li>
+ * </ul>
+ */
+public class ImagePrePullListener implements LauncherSessionListener {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ImagePrePullListener.class);
+    private static final int DEFAULT_CONCURRENCY = 4;
+
+    @Override
+    public void launcherSessionOpened(LauncherSession session) {
+        if (!Boolean.parseBoolean(System.getProperty("javister.image.prepull", "true"))) {
+            return;
+        }
+        session.getLauncher().registerTestExecutionListeners(new TestExecutionListener() {
+            @Override
+            public void testPlanExecutionStarted(TestPlan testPlan) {
+                prePull(testPlan);
+            }
+        });
+    }
+
+    private static void prePull(TestPlan testPlan) {
+        Set<Class<?>> testClasses = new LinkedHashSet<>();
+        for (TestIdentifier root : testPlan.getRoots()) {
+            for (TestIdentifier identifier : testPlan.getDescendants(root)) {
+                Class<?> testClass = testClass(identifier.getSource().orElse(null));
+                if (testClass != null) {
+                    testClasses.add(testClass);
+                }
+            }
+        }
+        Map<DockerImageName, String> images = findImages(testClasses);
+        if (images.isEmpty()) {
+            return;
+        }
+        if (!DockerClientFactory.instance().isDockerAvailable()) {
+            LOGGER.warn("Docker is not available, skipping the image pre-pull");
+            return;
+        }
+        pullAll(images, Integer.getInteger("javister.image.prepull.concurrency", DEFAULT_CONCURRENCY));
+    }
+
+    @Nullable
+    private static Class<?> testClass(@Nullable TestSource source) {
+        if (source instanceof ClassSource) {
+            return ((ClassSource) source).getJavaClass();
+        }
+        if (source instanceof MethodSource) {
+            return ((MethodSource) source).getJavaClass();
+        }
+        return null;
+    }
+
+    /**
+     * Поиск образов контейнеров в полях тестовых классов.
+     *
+     * @param testClasses тестовые классы.
+     * @return имена образов и их ожидаемые идентификаторы.
+     */
+    @NotNull
+    static Map<DockerImageName, String> findImages(@NotNull Set<Class<?>> testClasses) {
+        Set<Class<?>> containerTypes = new LinkedHashSet<>();
+        for (Class<?> testClass : testClasses) {
+            List<Field> fields;
+            try {
+                fields = ReflectionSupport.findFields(
+                        testClass,
+                        field -> AnnotationSupport.isAnnotated(field, Container.class)
+                                && JavisterBaseContainer.class.isAssignableFrom(field.getType()),
+                        HierarchyTraversalMode.TOP_DOWN);
+            } catch (RuntimeException | LinkageError e) {
+                LOGGER.debug("Can't inspect test class {}", testClass.getName(), e);
+                continue;
+            }
+            for (Field field : fields) {
+                if (isConcreteWrapper(field.getType())) {
+                    containerTypes.add(field.getType());
+                } else {
+                    LOGGER.debug("The image of {} can't be determined from its type", field);
+                }
+            }
+        }
+        Map<DockerImageName, String> images = new LinkedHashMap<>();
+        for (Class<?> containerType : containerTypes) {
+            try {
+                images.put(DockerImageName.parse(imageName(containerType)), imageId(containerType));
+            } catch (RuntimeException e) {
+                // Обёртка без метаданных образа или с обязательным вариантом образа
+                LOGGER.debug("No image metadata for {}", containerType.getName(), e);
+            }
+        }
+        return images;
+    }
+
+    private static boolean isConcreteWrapper(Class<?> type) {
+        return !type.isInterface() && !Modifier.isAbstract(type.getModifiers()) && type != JavisterBaseContainerImpl.class;
+    }
+
+    private static void pullAll(Map<DockerImageName, String> images, int concurrency) {
+        LOGGER.info("Pre-pulling {} image(s)", images.size());
+        // Скачивания блокируют потоки на всё время загрузки, поэтому выполняются в собственном пуле, а не в общем
+        // пуле AsyncSupport, нужном параллельно стартующим контейнерам
+        ExecutorService executor = Executors.newFixedThreadPool(
+                Math.max(1, concurrency),
+                AsyncSupport.daemonThreadFactory("javister-image-prepull-"));
+        try {
+            List<CompletableFuture<?>> pulls = new ArrayList<>();
+            images.forEach((name, id) -> pulls.add(CompletableFuture.runAsync(() -> {
+                try {
+                    new RemoteDockerImage(name).withImagePullPolicy(new ImageIdPullPolicy(id)).get();
+                    if (!LocalImageRegistry.getInstance().contains(id, name)) {
+                        LOGGER.warn("Image {} doesn't match the expected id {}", name, id);
+                    }
+                } catch (RuntimeException e) {
+                    LOGGER.warn("Can't pre-pull image {}, it will be pulled on the container start", name, e);
+                }
+            }, executor)));
+            CompletableFuture.allOf(pulls.toArray(new CompletableFuture<?>[0])).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            LOGGER.warn("Image pre-pull failed", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static String imageName(Class<?> containerType) {
+        return JavisterBaseContainer.getImageName((Class) containerType, null);
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static String imageId(Class<?> containerType) {
+        return JavisterBaseContainer.getImageId((Class) containerType, null);
+    }
+}
@@ -0,0 +1,140 @@
+package com.github.javister.docker.testing.image;
+
+import com.github.dockerjava.api.model.Image;
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testcontainers.DockerClientFactory;
+import org.testcontainers.utility.DockerImageName;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Кэш списка образов локального демона Docker.
+ *
+ * <p>Список образов запрашивается одним вызовом {@code docker images} и переиспользуется в пределах JVM.
+ * Положительные ответы кэшируются, а при отсутствии образа в кэше список запрашивается заново: образ мог быть
+ * собран или скачан после предыдущего запроса.
+ */
+public class LocalImageRegistry {
+    private static final Logger LOGGER = LoggerFactory.getLogger(LocalImageRegistry.class);
+    private static final String ID_PREFIX = "sha256:";
+
+    private static final LocalImageRegistry INSTANCE = new LocalImageRegistry(() ->
+            DockerClientFactory.lazyClient().listImagesCmd().exec());
+
+    private final Supplier<List<Image>> imageLister;
+    private final Set<String> confirmed = ConcurrentHashMap.newKeySet();
+    private Map<String, Set<String>> images;
+
+    LocalImageRegistry(@NotNull Supplier<List<Image>> imageLister) {
+        this.imageLister = imageLister;
+    }
+
+    /**
+     * @return кэш образов локального демона Docker, общий для всей JVM.
+     */
+    @NotNull
+    public static LocalImageRegistry getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Проверка наличия в локальном демоне образа с заданным идентификатором и тегом.
+     *
+     * @param imageId   идентификатор образа - полный или сокращённый, с префиксом {@code sha256:} или без него.
+     * @param imageName имя образа с тегом, под которым образ должен быть доступен.
+     * @return true, если образ с заданным идентификатором доступен под заданным именем.
+     */
+    public boolean contains(@NotNull String imageId, @NotNull DockerImageName imageName) {
+        String id = normalizeId(imageId);
+        if (id.isEmpty()) {
+            return false;
+        }
+        String name = imageName.asCanonicalNameString();
+        String key = id + " " + name;
+        if (confirmed.contains(key)) {
+            return true;
+        }
+        synchronized (this) {
+            // Повторный запрос списка нужен только если образ не нашёлся в уже полученном списке
+            if (images == null || !find(id, name)) {
+                images = listImages();
+            }
+            if (find(id, name)) {
+                confirmed.add(key);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Проверка наличия в локальном демоне образа с заданным именем и тегом.
+     *
+     * @param imageName имя образа с тегом.
+     * @return true, если образ с заданным именем есть в локальном демоне.
+     */
+    public boolean contains(@NotNull DockerImageName imageName) {
+        String name = imageName.asCanonicalNameString();
+        if (confirmed.contains(name)) {
+            return true;
+        }
+        synchronized (this) {
+            if (images == null || !find("", name)) {
+                images = listImages();
+            }
+            if (find("", name)) {
+                confirmed.add(name);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean find(String id, String name) {
+        for (Map.Entry<String, Set<String>> image : images.entrySet()) {
+            if (image.getKey().startsWith(id) && image.getValue().contains(name)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private Map<String, Set<String>> listImages() {
+        Map<String, Set<String>> result = new HashMap<>();
+        for (Image image : imageLister.get()) {
+            if (image.getId() == null) {
+                continue;
+            }
+            Set<String> names = new HashSet<>();
+            String[] repoTags = image.getRepoTags();
+            if (repoTags != null) {
+                for (String repoTag : repoTags) {
+                    try {
+                        names.add(DockerImageName.parse(repoTag).asCanonicalNameString());
+                    } catch (IllegalArgumentException e) {
+                        // <none>:<none> и прочие некорректные имена
+                        LOGGER.trace("Skipping image tag {}", repoTag);
+                    }
+                }
+            }
+            result.put(normalizeId(image.getId()), Collections.unmodifiableSet(names));
+        }
+        return result;
+    }
+
+    @NotNull
+    static String normalizeId(@NotNull String imageId) {
+        String id = imageId.trim().toLowerCase(Locale.ROOT);
+        return id.startsWith(ID_PREFIX) ? id.substring(ID_PREFIX.length()) : id;
+    }
+}
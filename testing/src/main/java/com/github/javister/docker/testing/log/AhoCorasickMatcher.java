@@ -0,0 +1,174 @@
+package com.github.javister.docker.testing.log;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Автомат Ахо-Корасик для одновременного поиска нескольких подстрок в потоке байт.
+ *
+ * <p>Подстроки ищутся в UTF-8 представлении, каждый байт потока обрабатывается одним переходом автомата
+ * независимо от количества подстрок. Таблица переходов строится полностью, поэтому переход не требует
+ * прохода по суффиксным ссылкам. Автомат неизменяем и может использоваться из нескольких потоков: состояние поиска
+ * хранится вызывающей стороной.
+ */
+public final class AhoCorasickMatcher {
+    private static final int ALPHABET = 256;
+    private static final int[] NO_MATCHES = new int[0];
+
+    private final List<String> patterns;
+    private final int[][] transitions;
+    private final int[][] matches;
+
+    /**
+     * Построение автомата.
+     *
+     * @param patterns искомые подстроки. Пустые подстроки не допускаются.
+     * @throws IllegalArgumentException если подстроки не заданы или среди них есть пустая.
+     */
+    public AhoCorasickMatcher(@NotNull String... patterns) {
+        this(Arrays.asList(patterns));
+    }
+
+    /**
+     * Построение автомата.
+     *
+     * @param patterns искомые подстроки. Пустые подстроки не допускаются.
+     * @throws IllegalArgumentException если подстроки не заданы или среди них есть пустая.
+     */
+    public AhoCorasickMatcher(@NotNull Collection<String> patterns) {
+        if (patterns.isEmpty()) {
+            throw new IllegalArgumentException("No patterns");
+        }
+        this.patterns = new ArrayList<>(patterns);
+
+        // Бор подстрок
+        List<int[]> trie = new ArrayList<>();
+        List<BitSet> output = new ArrayList<>();
+        trie.add(newState());
+        output.add(new BitSet());
+        for (int i = 0; i < this.patterns.size(); i++) {
+            byte[] bytes = this.patterns.get(i).getBytes(StandardCharsets.UTF_8);
+            if (bytes.length == 0) {
+                throw new IllegalArgumentException("Empty pattern");
+            }
+            int state = 0;
+            for (byte b : bytes) {
+                int next = trie.get(state)[b & 0xFF];
+                if (next < 0) {
+                    next = trie.size();
+                    trie.add(newState());
+                    output.add(new BitSet());
+                    trie.get(state)[b & 0xFF] = next;
+                }
+                state = next;
+            }
+            output.get(state).set(i);
+        }
+
+        // Суффиксные ссылки обходом в ширину и достройка таблицы переходов
+        int[] fail = new int[trie.size()];
+        Deque<Integer> queue = new ArrayDeque<>();
+        int[] root = trie.get(0);
+        for (int c = 0; c < ALPHABET; c++) {
+            if (root[c] < 0) {
+                root[c] = 0;
+            } else {
+                fail[root[c]] = 0;
+                queue.add(root[c]);
+            }
+        }
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            int[] row = trie.get(state);
+            output.get(state).or(output.get(fail[state]));
+            for (int c = 0; c < ALPHABET; c++) {
+                int next = row[c];
+                if (next < 0) {
+                    row[c] = trie.get(fail[state])[c];
+                } else {
+                    fail[next] = trie.get(fail[state])[c];
+                    queue.add(next);
+                }
+            }
+        }
+
+        this.transitions = trie.toArray(new int[0][]);
+        this.matches = new int[output.size()][];
+        for (int i = 0; i < output.size(); i++) {
+            BitSet bits = output.get(i);
+            matches[i] = bits.isEmpty() ? NO_MATCHES : bits.stream().toArray();
+        }
+    }
+
+    private static int[] newState() {
+        int[] row = new int[ALPHABET];
+        Arrays.fill(row, -1);
+        return row;
+    }
+
+    /**
+     * @return искомые подстроки в порядке их индексов.
+     */
+    @NotNull
+    public List<String> getPatterns() {
+        return patterns;
+    }
+
+    /**
+     * @return начальное состояние автомата.
+     */
+    public int initialState() {
+        return 0;
+    }
+
+    /**
+     * Переход автомата по очередному байту потока.
+     *
+     * @param state текущее состояние.
+     * @param b     очередной байт.
+     * @return новое состояние.
+     */
+    public int next(int state, byte b) {
+        return transitions[state][b & 0xFF];
+    }
+
+    /**
+     * Подстроки, оканчивающиеся в заданном состоянии.
+     *
+     * @param state состояние автомата.
+     * @return индексы найденных подстрок. Пустой массив, если в этом состоянии подстроки не найдены.
+     */
+    @NotNull
+    public int[] matches(int state) {
+        return matches[state];
+    }
+
+    /**
+     * Поиск подстрок в массиве байт.
+     *
+     * @param bytes  массив байт.
+     * @param offset начало области поиска.
+     * @param length длина области поиска.
+     * @return индексы найденных подстрок.
+     */
+    @NotNull
+    public BitSet findAll(@NotNull byte[] bytes, int offset, int length) {
+        BitSet result = new BitSet(patterns.size());
+        int state = initialState();
+        for (int i = offset; i < offset + length; i++) {
+            state = next(state, bytes[i]);
+            for (int match : matches[state]) {
+                result.set(match);
+            }
+        }
+        return result;
+    }
+}
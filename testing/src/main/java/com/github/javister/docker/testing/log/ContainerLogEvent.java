@@ -0,0 +1,170 @@
+package com.github.javister.docker.testing.log;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Locale;
+
+/**
+ * Сообщение лога контейнера, выведенное syslog-ng в формате JSON (переменная окружения {@code LOG_FORMAT=json}).
+ *
+ * @see JsonLogConsumer
+ */
+public class ContainerLogEvent {
+    private final String timestamp;
+    private final String facility;
+    private final Level level;
+    private final String program;
+    private final Integer pid;
+    private final String message;
+
+    public ContainerLogEvent(
+            @Nullable String timestamp,
+            @Nullable String facility,
+            @Nullable Level level,
+            @Nullable String program,
+            @Nullable Integer pid,
+            @Nullable String message) {
+        this.timestamp = timestamp;
+        this.facility = facility;
+        this.level = level;
+        this.program = program;
+        this.pid = pid;
+        this.message = message;
+    }
+
+    /**
+     * Время сообщения в том виде, в котором его вывел syslog-ng (ISO 8601).
+     *
+     * @return время сообщения или null, если оно отсутствует.
+     */
+    @Nullable
+    public String getTimestamp() {
+        return timestamp;
+    }
+
+    /**
+     * Время сообщения.
+     *
+     * @return время сообщения или null, если оно отсутствует или имеет некорректный формат.
+     */
+    @Nullable
+    public OffsetDateTime getTime() {
+        if (timestamp == null) {
+            return null;
+        }
+        try {
+            return OffsetDateTime.parse(timestamp);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    @Nullable
+    public String getFacility() {
+        return facility;
+    }
+
+    @Nullable
+    public Level getLevel() {
+        return level;
+    }
+
+    @Nullable
+    public String getProgram() {
+        return program;
+    }
+
+    @Nullable
+    public Integer getPid() {
+        return pid;
+    }
+
+    @Nullable
+    public String getMessage() {
+        return message;
+    }
+
+    @Override
+    public String toString() {
+        return timestamp + " " + level + " " + program + (pid != null ? "[" + pid + "]" : "") + ": " + message;
+    }
+
+    /**
+     * Уровни важности сообщений syslog в порядке убывания важности.
+     */
+    public enum Level {
+        EMERG("emerg"),
+        ALERT("alert"),
+        CRIT("crit"),
+        ERR("err"),
+        WARNING("warning"),
+        NOTICE("notice"),
+        INFO("info"),
+        DEBUG("debug");
+
+        private final String syslogName;
+
+        Level(String syslogName) {
+            this.syslogName = syslogName;
+        }
+
+        /**
+         * Имя уровня в нотации syslog-ng.
+         *
+         * @return имя уровня в нотации syslog-ng.
+         */
+        @NotNull
+        public String getSyslogName() {
+            return syslogName;
+        }
+
+        /**
+         * Проверяет, что данный уровень не менее важен, чем указанный.
+         *
+         * @param other уровень для сравнения.
+         * @return true, если данный уровень важнее указанного или равен ему.
+         */
+        public boolean isAtLeast(@NotNull Level other) {
+            return ordinal() <= other.ordinal();
+        }
+
+        /**
+         * Получение уровня по его имени в нотации syslog-ng.
+         *
+         * @param name имя уровня.
+         * @return уровень или null, если имя не распознано.
+         */
+        @Nullable
+        public static Level parse(@Nullable String name) {
+            if (name == null) {
+                return null;
+            }
+            switch (name.toLowerCase(Locale.ROOT)) {
+                case "emerg":
+                case "panic":
+                    return EMERG;
+                case "alert":
+                    return ALERT;
+                case "crit":
+                    return CRIT;
+                case "err":
+                case "error":
+                    return ERR;
+                case "warning":
+                case "warn":
+                    return WARNING;
+                case "notice":
+                    return NOTICE;
+                case "info":
+                    return INFO;
+                case "debug":
+                    return DEBUG;
+                default:
+                    return null;
+            }
+        }
+    }
+}
@@ -0,0 +1,208 @@
+package com.github.javister.docker.testing.log;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.github.javister.docker.testing.log.ContainerLogEvent.Level;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.testcontainers.containers.output.BaseConsumer;
+import org.testcontainers.containers.output.OutputFrame;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Обработчик лога контейнера, выводящего лог syslog-ng в формате JSON (переменная окружения {@code LOG_FORMAT=json}).
+ *
+ * <p>Строки лога разбираются потоковым парсером в {@link ContainerLogEvent}. Фильтрация по уровню и программе
+ * производится до построения строки сообщения, так что отброшенные сообщения почти ничего не стоят.
+ * Строки, не являющиеся JSON объектами (например вывод стартовых скриптов до запуска syslog-ng), пропускаются.
+ */
+public class JsonLogConsumer extends BaseConsumer<JsonLogConsumer> {
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private final Consumer<ContainerLogEvent> consumer;
+    private Level minLevel;
+    private Set<String> programs = Collections.emptySet();
+
+    /**
+     * Создаёт обработчик, передающий разобранные сообщения указанному приёмнику.
+     *
+     * @param consumer приёмник сообщений лога.
+     */
+    public JsonLogConsumer(@NotNull Consumer<ContainerLogEvent> consumer) {
+        this.consumer = consumer;
+    }
+
+    /**
+     * Задаёт минимальный уровень передаваемых сообщений.
+     *
+     * @param minLevel минимальный уровень сообщений или null, чтобы передавать сообщения любого уровня.
+     * @return возвращает this для fluent API.
+     */
+    @NotNull
+    public JsonLogConsumer withMinLevel(@Nullable Level minLevel) {
+        this.minLevel = minLevel;
+        return this;
+    }
+
+    /**
+     * Задаёт список программ, сообщения которых необходимо передавать.
+     *
+     * @param programs имена программ. Если не заданы, то передаются сообщения всех программ.
+     * @return возвращает this для fluent API.
+     */
+    @NotNull
+    public JsonLogConsumer withPrograms(@NotNull String... programs) {
+        this.programs = new HashSet<>(Arrays.asList(programs));
+        return this;
+    }
+
+    @Override
+    public void accept(@NotNull OutputFrame outputFrame) {
+        byte[] bytes = outputFrame.getBytes();
+        if (bytes == null) {
+            return;
+        }
+        int start = 0;
+        for (int i = 0; i <= bytes.length; i++) {
+            if (i == bytes.length || bytes[i] == '\n') {
+                parseLine(bytes, start, i - start);
+                start = i + 1;
+            }
+        }
+    }
+
+    private void parseLine(byte[] bytes, int offset, int length) {
+        while (length > 0 && (bytes[offset] == ' ' || bytes[offset] == '\t')) {
+            offset++;
+            length--;
+        }
+        if (length == 0 || bytes[offset] != '{') {
+            return;
+        }
+        try {
+            ContainerLogEvent event = parseEvent(bytes, offset, length);
+            if (event != null) {
+                consumer.accept(event);
+            }
+        } catch (IOException e) {
+            // Не JSON или обрезанная строка - такие строки пропускаем
+        }
+    }
+
+    @Nullable
+    private ContainerLogEvent parseEvent(byte[] bytes, int offset, int length) throws IOException {
+        String timestamp = null;
+        String facility = null;
+        Level level = null;
+        String program = null;
+        Integer pid = null;
+        String message = null;
+        boolean messageSkipped = false;
+        try (JsonParser parser = JSON_FACTORY.createParser(bytes, offset, length)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return null;
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken token = parser.nextToken();
+                if (token == JsonToken.START_OBJECT || token == JsonToken.START_ARRAY) {
+                    parser.skipChildren();
+                    continue;
+                }
+                switch (field) {
+                    case "time":
+                        timestamp = parser.getText();
+                        break;
+                    case "facility":
+                        facility = parser.getText();
+                        break;
+                    case "level":
+                        level = Level.parse(parser.getText());
+                        if (level != null && !isLevelAccepted(level)) {
+                            return null;
+                        }
+                        break;
+                    case "program":
+                        program = parser.getText();
+                        if (!isProgramAccepted(program)) {
+                            return null;
+                        }
+                        break;
+                    case "pid":
+                        pid = parsePid(parser);
+                        break;
+                    case "message":
+                        // Строку сообщения строим только если уже известно, что оно пройдёт фильтры.
+                        // Иначе парсер пропускает значение не декодируя его.
+                        if (isDecided(level, program)) {
+                            message = parser.getText();
+                        } else {
+                            messageSkipped = true;
+                        }
+                        break;
+                    default:
+                        break;
+                }
+            }
+        }
+        if (!isLevelAccepted(level) || !isProgramAccepted(program)) {
+            return null;
+        }
+        if (messageSkipped) {
+            message = readMessage(bytes, offset, length);
+        }
+        return new ContainerLogEvent(timestamp, facility, level, program, pid, message);
+    }
+
+    @Nullable
+    private static String readMessage(byte[] bytes, int offset, int length) throws IOException {
+        try (JsonParser parser = JSON_FACTORY.createParser(bytes, offset, length)) {
+            parser.nextToken();
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken token = parser.nextToken();
+                if (token == JsonToken.START_OBJECT || token == JsonToken.START_ARRAY) {
+                    parser.skipChildren();
+                } else if ("message".equals(field)) {
+                    return parser.getText();
+                }
+            }
+        }
+        return null;
+    }
+
+    @Nullable
+    private static Integer parsePid(JsonParser parser) throws IOException {
+        if (parser.currentToken() == JsonToken.VALUE_NUMBER_INT) {
+            return parser.getIntValue();
+        }
+        String text = parser.getText();
+        if (text == null || text.isEmpty()) {
+            return null;
+        }
+        try {
+            return Integer.valueOf(text);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private boolean isDecided(@Nullable Level level, @Nullable String program) {
+        return (minLevel == null || level != null) && (programs.isEmpty() || program != null);
+    }
+
+    private boolean isLevelAccepted(@Nullable Level level) {
+        return minLevel == null || (level != null && level.isAtLeast(minLevel));
+    }
+
+    private boolean isProgramAccepted(@Nullable String program) {
+        return programs.isEmpty() || (program != null && programs.contains(program));
+    }
+}
@@ -0,0 +1,339 @@
+package com.github.javister.docker.testing.log;
+
+import org.jetbrains.annotations.NotNull;
+import org.testcontainers.containers.output.BaseConsumer;
+import org.testcontainers.containers.output.OutputFrame;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Захват лога контейнера в память с индексом строк.
+ *
+ * <p>Лог пишется в кольцевой буфер вне кучи Java заданного размера: при переполнении вытесняются самые старые
+ * строки. Для сохранённых строк ведётся индекс смещений, так что история лога доступна без повторного чтения
+ * {@code docker logs}. Строки нумеруются с нуля с момента начала захвата.
+ *
+ * <p>Ожидание строк ({@link #waitForLog(Duration, String...)}) выполняется одним автоматом
+ * {@link AhoCorasickMatcher} на все искомые подстроки: каждый байт лога просматривается один раз независимо
+ * от количества подстрок. Подстроки ищутся в пределах одной строки лога.
+ */
+public class LogCapture extends BaseConsumer<LogCapture> {
+    /**
+     * Размер буфера по умолчанию.
+     */
+    public static final int DEFAULT_CAPACITY = 16 * 1024 * 1024;
+    /**
+     * Минимальный средний размер строки, на который рассчитан индекс строк. Ограничивает память индекса
+     * для логов из очень коротких строк.
+     */
+    private static final int MIN_AVERAGE_LINE_LENGTH = 16;
+    private static final int INITIAL_INDEX_SIZE = 1024;
+
+    private final ByteBuffer buffer;
+    private final int capacity;
+    private final int maxIndexSize;
+
+    /**
+     * Количество байт, записанных с начала захвата. Позиции в логе абсолютные, позиция в буфере - остаток
+     * от деления на размер буфера.
+     */
+    private long written = 0;
+    /**
+     * Позиция начала текущей, ещё не завершённой строки.
+     */
+    private long pendingLineStart = 0;
+    /**
+     * Количество завершённых строк с начала захвата.
+     */
+    private long lineCount = 0;
+
+    /**
+     * Кольцевой индекс сохранённых строк: позиции начала и конца (без перевода строки).
+     * Первая запись индекса соответствует строке {@code lineCount - indexSize}.
+     */
+    private long[] lineStarts = new long[INITIAL_INDEX_SIZE];
+    private long[] lineEnds = new long[INITIAL_INDEX_SIZE];
+    private int indexHead = 0;
+    private int indexSize = 0;
+
+    private final List<Waiter> waiters = new ArrayList<>();
+
+    /**
+     * Создаёт захват лога с буфером размера по умолчанию.
+     */
+    public LogCapture() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Создаёт захват лога.
+     *
+     * @param capacity размер буфера в байтах.
+     */
+    public LogCapture(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+        this.capacity = capacity;
+        this.buffer = ByteBuffer.allocateDirect(capacity);
+        this.maxIndexSize = Math.max(INITIAL_INDEX_SIZE, capacity / MIN_AVERAGE_LINE_LENGTH);
+    }
+
+    @Override
+    public void accept(@NotNull OutputFrame outputFrame) {
+        byte[] bytes = outputFrame.getBytes();
+        if (bytes != null) {
+            append(bytes, 0, bytes.length);
+        }
+    }
+
+    /**
+     * Добавление данных в лог.
+     *
+     * @param bytes  массив байт.
+     * @param offset начало данных.
+     * @param length длина данных.
+     */
+    public synchronized void append(@NotNull byte[] bytes, int offset, int length) {
+        for (int i = offset; i < offset + length; i++) {
+            byte b = bytes[i];
+            if (b == '\n') {
+                completeLine();
+            } else {
+                buffer.put((int) (written % capacity), b);
+                written++;
+                for (Waiter waiter : waiters) {
+                    waiter.feed(b);
+                }
+            }
+        }
+        evict();
+        waiters.removeIf(Waiter::isDone);
+    }
+
+    private void completeLine() {
+        long end = written;
+        if (end > pendingLineStart && buffer.get((int) ((end - 1) % capacity)) == '\r') {
+            end--;
+        }
+        // Строка длиннее буфера уже частично вытеснена и в индекс не попадает
+        if (pendingLineStart >= written - capacity) {
+            if (indexSize == maxIndexSize) {
+                indexHead = (indexHead + 1) % lineStarts.length;
+                indexSize--;
+            }
+            if (indexSize == lineStarts.length) {
+                growIndex();
+            }
+            int slot = (indexHead + indexSize) % lineStarts.length;
+            lineStarts[slot] = pendingLineStart;
+            lineEnds[slot] = end;
+            indexSize++;
+        }
+        lineCount++;
+        pendingLineStart = written;
+        for (Waiter waiter : waiters) {
+            waiter.endLine();
+        }
+    }
+
+    private void growIndex() {
+        int size = Math.min(lineStarts.length * 2, maxIndexSize);
+        long[] starts = new long[size];
+        long[] ends = new long[size];
+        for (int i = 0; i < indexSize; i++) {
+            int slot = (indexHead + i) % lineStarts.length;
+            starts[i] = lineStarts[slot];
+            ends[i] = lineEnds[slot];
+        }
+        lineStarts = starts;
+        lineEnds = ends;
+        indexHead = 0;
+    }
+
+    private void evict() {
+        long oldest = written - capacity;
+        while (indexSize > 0 && lineStarts[indexHead] < oldest) {
+            indexHead = (indexHead + 1) % lineStarts.length;
+            indexSize--;
+        }
+    }
+
+    /**
+     * @return количество завершённых строк с начала захвата. Номер следующей строки лога.
+     */
+    public synchronized long getLineCount() {
+        return lineCount;
+    }
+
+    /**
+     * @return номер самой старой сохранённой строки.
+     */
+    public synchronized long getFirstLine() {
+        return lineCount - indexSize;
+    }
+
+    /**
+     * Получение всех сохранённых строк лога.
+     *
+     * @return строки лога.
+     */
+    @NotNull
+    public List<String> getLines() {
+        return getLines(0, Long.MAX_VALUE);
+    }
+
+    /**
+     * Получение сохранённых строк лога из заданного диапазона номеров. Вытесненные строки пропускаются.
+     *
+     * @param fromLine номер первой строки, включительно.
+     * @param toLine   номер последней строки, не включительно.
+     * @return строки лога.
+     */
+    @NotNull
+    public synchronized List<String> getLines(long fromLine, long toLine) {
+        long first = Math.max(fromLine, getFirstLine());
+        long last = Math.min(toLine, lineCount);
+        List<String> result = new ArrayList<>((int) Math.max(0, Math.min(last - first, indexSize)));
+        for (long line = first; line < last; line++) {
+            result.add(new String(readLine(line), StandardCharsets.UTF_8));
+        }
+        return result;
+    }
+
+    /**
+     * Поиск сохранённых строк лога, содержащих любую из заданных подстрок.
+     *
+     * @param patterns искомые подстроки.
+     * @return найденные строки лога.
+     */
+    @NotNull
+    public synchronized List<String> findLines(@NotNull String... patterns) {
+        AhoCorasickMatcher matcher = new AhoCorasickMatcher(patterns);
+        List<String> result = new ArrayList<>();
+        for (long line = getFirstLine(); line < lineCount; line++) {
+            byte[] bytes = readLine(line);
+            if (!matcher.findAll(bytes, 0, bytes.length).isEmpty()) {
+                result.add(new String(bytes, StandardCharsets.UTF_8));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Ожидание появления в логе всех заданных подстрок. Учитываются и уже сохранённые строки лога.
+     *
+     * @param timeout  максимальное время ожидания.
+     * @param patterns искомые подстроки.
+     * @return true, если все подстроки найдены, и false в случае таймаута.
+     * @throws InterruptedException если ожидание прервано.
+     */
+    public boolean waitForLog(@NotNull Duration timeout, @NotNull String... patterns) throws InterruptedException {
+        return waitForLog(0, timeout, patterns);
+    }
+
+    /**
+     * Ожидание появления в логе всех заданных подстрок, начиная с заданной строки.
+     * <p>Чтобы учитывать только строки, появившиеся после некоторого действия, номер строки запоминается
+     * перед действием вызовом {@link #getLineCount()}.
+     *
+     * @param fromLine номер строки, с которой начинается поиск.
+     * @param timeout  максимальное время ожидания.
+     * @param patterns искомые подстроки.
+     * @return true, если все подстроки найдены, и false в случае таймаута.
+     * @throws InterruptedException если ожидание прервано.
+     */
+    public boolean waitForLog(long fromLine, @NotNull Duration timeout, @NotNull String... patterns)
+            throws InterruptedException {
+        Waiter waiter = new Waiter(new AhoCorasickMatcher(patterns));
+        synchronized (this) {
+            for (long line = Math.max(fromLine, getFirstLine()); line < lineCount && !waiter.isDone(); line++) {
+                int slot = indexSlot(line);
+                feed(waiter, lineStarts[slot], lineEnds[slot]);
+                waiter.endLine();
+            }
+            if (waiter.isDone()) {
+                return true;
+            }
+            if (fromLine <= lineCount && pendingLineStart >= written - capacity) {
+                feed(waiter, pendingLineStart, written);
+            }
+            if (waiter.isDone()) {
+                return true;
+            }
+            waiters.add(waiter);
+        }
+        try {
+            return waiter.await(timeout);
+        } finally {
+            synchronized (this) {
+                waiters.remove(waiter);
+            }
+        }
+    }
+
+    private void feed(Waiter waiter, long start, long end) {
+        for (long position = start; position < end; position++) {
+            waiter.feed(buffer.get((int) (position % capacity)));
+        }
+    }
+
+    private int indexSlot(long line) {
+        return (int) ((indexHead + (line - getFirstLine())) % lineStarts.length);
+    }
+
+    private byte[] readLine(long line) {
+        int slot = indexSlot(line);
+        long start = lineStarts[slot];
+        byte[] bytes = new byte[(int) (lineEnds[slot] - start)];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = buffer.get((int) ((start + i) % capacity));
+        }
+        return bytes;
+    }
+
+    /**
+     * Ожидающий подстрок поток: состояние автомата и ещё не найденные подстроки.
+     */
+    private static class Waiter {
+        private final AhoCorasickMatcher matcher;
+        private final BitSet remaining = new BitSet();
+        private final CountDownLatch done = new CountDownLatch(1);
+        private int state;
+
+        Waiter(AhoCorasickMatcher matcher) {
+            this.matcher = matcher;
+            this.state = matcher.initialState();
+            remaining.set(0, matcher.getPatterns().size());
+        }
+
+        void feed(byte b) {
+            state = matcher.next(state, b);
+            for (int match : matcher.matches(state)) {
+                remaining.clear(match);
+            }
+            if (remaining.isEmpty()) {
+                done.countDown();
+            }
+        }
+
+        void endLine() {
+            state = matcher.initialState();
+        }
+
+        boolean isDone() {
+            return done.getCount() == 0;
+        }
+
+        boolean await(Duration timeout) throws InterruptedException {
+            return done.await(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.github.javister.docker.testing.network;
+
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testcontainers.containers.Network;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Пул сетей Docker, выдаваемых по логическим именам.
+ *
+ * <p>Сеть создаётся лениво - при первом обращении к её идентификатору, обычно при старте первого подключённого
+ * к ней контейнера. Возвращённая в пул сеть не удаляется, а выдаётся следующему тестовому классу, запросившему
+ * сеть с тем же логическим именем. Одновременно выданные сети с одним логическим именем - разные сети Docker,
+ * поэтому сетевые алиасы контейнеров параллельно выполняющихся тестовых классов не пересекаются.
+ * Все созданные пулом сети удаляются одним проходом при завершении JVM.
+ *
+ * <p>Сеть возвращается в пул методом {@link PooledNetwork#close()}. Если сеть объявлена статическим полем тестового
+ * класса с аннотацией {@link org.testcontainers.junit.jupiter.Container}, она возвращается в пул автоматически
+ * по завершении класса:
+ * <pre>{@code
+ * @Container
+ * private static final PooledNetwork network = NetworkPool.getInstance().acquire("external");
+ * }</pre>
+ */
+public class NetworkPool {
+    private static final Logger LOGGER = LoggerFactory.getLogger(NetworkPool.class);
+
+    private static final NetworkPool INSTANCE = new NetworkPool(name -> Network.builder()
+            .createNetworkCmdModifier(cmd -> cmd.withName("javister-" + name + "-" + UUID.randomUUID().toString().substring(0, 8)))
+            .build());
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(INSTANCE::removeAll, "javister-network-pool-cleanup"));
+    }
+
+    private final Function<String, Network> networkFactory;
+    private final Map<String, Deque<Network>> free = new HashMap<>();
+    private final List<Network> created = new ArrayList<>();
+
+    NetworkPool(@NotNull Function<String, Network> networkFactory) {
+        this.networkFactory = networkFactory;
+    }
+
+    /**
+     * @return пул сетей, общий для всей JVM.
+     */
+    @NotNull
+    public static NetworkPool getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Получение сети из пула. Если свободной сети с заданным логическим именем нет, создаётся описание новой сети,
+     * сама сеть Docker будет создана при первом обращении к её идентификатору.
+     *
+     * @param name логическое имя сети, например {@code external} или {@code internal}.
+     * @return сеть, выданная в пользование до вызова {@link PooledNetwork#close()}.
+     */
+    @NotNull
+    public synchronized PooledNetwork acquire(@NotNull String name) {
+        Deque<Network> networks = free.get(name);
+        Network network = networks != null ? networks.poll() : null;
+        if (network == null) {
+            network = networkFactory.apply(name);
+            created.add(network);
+        }
+        return new PooledNetwork(this, name, network);
+    }
+
+    synchronized void release(@NotNull String name, @NotNull Network network) {
+        free.computeIfAbsent(name, key -> new ArrayDeque<>()).push(network);
+    }
+
+    /**
+     * Удаление всех созданных пулом сетей. Вызывается автоматически при завершении JVM.
+     */
+    public void removeAll() {
+        List<Network> networks;
+        synchronized (this) {
+            networks = new ArrayList<>(created);
+            created.clear();
+            free.clear();
+        }
+        for (Network network : networks) {
+            try {
+                // Для так и не созданных сетей close() не обращается к Docker
+                network.close();
+            } catch (RuntimeException e) {
+                LOGGER.warn("Can't remove network", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.github.javister.docker.testing.network;
+
+import org.jetbrains.annotations.NotNull;
+import org.junit.runner.Description;
+import org.junit.runners.model.Statement;
+import org.testcontainers.containers.Network;
+import org.testcontainers.lifecycle.Startable;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Сеть, выданная из {@link NetworkPool}. Закрытие сети возвращает её в пул, а не удаляет.
+ *
+ * <p>Реализует {@link Startable}, чтобы сеть, объявленная полем тестового класса с аннотацией
+ * {@link org.testcontainers.junit.jupiter.Container}, возвращалась в пул по завершении класса (для статического поля)
+ * или теста. Запуск сети ничего не делает: сеть Docker создаётся при первом обращении к её идентификатору.
+ */
+public class PooledNetwork implements Network, Startable {
+    private final NetworkPool pool;
+    private final String name;
+    private final Network network;
+    private final AtomicBoolean released = new AtomicBoolean();
+
+    PooledNetwork(@NotNull NetworkPool pool, @NotNull String name, @NotNull Network network) {
+        this.pool = pool;
+        this.name = name;
+        this.network = network;
+    }
+
+    /**
+     * @return логическое имя сети в пуле.
+     */
+    @NotNull
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public String getId() {
+        return network.getId();
+    }
+
+    @Override
+    public void start() {
+        // Сеть создаётся лениво
+    }
+
+    @Override
+    public void stop() {
+        close();
+    }
+
+    /**
+     * Возврат сети в пул. Повторные вызовы ничего не делают.
+     */
+    @Override
+    public void close() {
+        if (released.compareAndSet(false, true)) {
+            pool.release(name, network);
+        }
+    }
+
+    @Override
+    public Statement apply(Statement base, Description description) {
+        return new Statement() {
+            @Override
+            public void evaluate() throws Throwable {
+                try {
+                    base.evaluate();
+                } finally {
+                    close();
+                }
+            }
+        };
+    }
+}
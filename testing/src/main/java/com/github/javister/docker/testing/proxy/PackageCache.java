@@ -0,0 +1,190 @@
+package com.github.javister.docker.testing.proxy;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Дисковый кэш пакетов RPM и метаданных репозиториев с вытеснением давно не использованных файлов.
+ *
+ * <p>Пакеты и файлы {@code repodata}, имена которых начинаются с контрольной суммы, неизменны и отдаются из кэша без
+ * обращения к репозиторию. Остальные файлы {@code repodata} ({@code repomd.xml}, а также метаданные репозиториев,
+ * собранных без {@code unique-md-filenames}) меняются при обновлении репозитория, поэтому из кэша они отдаются
+ * только если репозиторий недоступен.
+ */
+class PackageCache {
+    private static final Logger LOGGER = LoggerFactory.getLogger(PackageCache.class);
+    private static final String SUFFIX = ".pkg";
+    private static final String TEMP_SUFFIX = ".tmp";
+    private static final Pattern CHECKSUM_NAMED = Pattern.compile(".*/repodata/[0-9a-f]{32,}-[^/]+$");
+
+    private final Path directory;
+    private final long maxBytes;
+    /**
+     * Файлы кэша и их размеры в порядке использования: от давно использованных к недавно использованным.
+     */
+    private final LinkedHashMap<String, Long> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalBytes = 0;
+
+    PackageCache(@NotNull Path directory, long maxBytes) throws IOException {
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+        Files.createDirectories(directory);
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+            for (Path file : stream) {
+                if (file.getFileName().toString().endsWith(TEMP_SUFFIX)) {
+                    // Недокачанный файл предыдущего запуска
+                    Files.deleteIfExists(file);
+                } else if (file.getFileName().toString().endsWith(SUFFIX)) {
+                    files.add(file);
+                }
+            }
+        }
+        files.sort((a, b) -> lastModified(a).compareTo(lastModified(b)));
+        for (Path file : files) {
+            long size = Files.size(file);
+            entries.put(file.getFileName().toString(), size);
+            totalBytes += size;
+        }
+        evict();
+    }
+
+    /**
+     * Проверка, кэшируется ли ресурс с заданным адресом.
+     *
+     * @param uri адрес ресурса.
+     * @return true для пакетов RPM и метаданных репозиториев.
+     */
+    static boolean isCacheable(@NotNull URI uri) {
+        String path = uri.getPath() != null ? uri.getPath().toLowerCase(Locale.ROOT) : "";
+        return path.endsWith(".rpm") || path.endsWith(".drpm") || path.contains("/repodata/");
+    }
+
+    /**
+     * Проверка, может ли ресурс с заданным адресом отдаваться из кэша без обращения к репозиторию.
+     *
+     * @param uri адрес ресурса.
+     * @return true для пакетов и файлов {@code repodata}, имена которых начинаются с контрольной суммы.
+     */
+    static boolean isImmutable(@NotNull URI uri) {
+        if (!isCacheable(uri)) {
+            return false;
+        }
+        String path = uri.getPath().toLowerCase(Locale.ROOT);
+        return !path.contains("/repodata/") || CHECKSUM_NAMED.matcher(path).matches();
+    }
+
+    /**
+     * Поиск ресурса в кэше.
+     *
+     * @param uri адрес ресурса.
+     * @return файл ресурса или null, если ресурса нет в кэше.
+     */
+    @Nullable
+    synchronized Path get(@NotNull URI uri) {
+        String name = fileName(uri);
+        if (entries.get(name) == null) {
+            return null;
+        }
+        Path file = directory.resolve(name);
+        try {
+            Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+        } catch (IOException e) {
+            // Файл удалён извне
+            totalBytes -= entries.remove(name);
+            return null;
+        }
+        return file;
+    }
+
+    /**
+     * Создание временного файла для скачиваемого ресурса.
+     *
+     * @return временный файл в каталоге кэша.
+     * @throws IOException в случае ошибки создания файла.
+     */
+    @NotNull
+    Path createTempFile() throws IOException {
+        return Files.createTempFile(directory, "download-", TEMP_SUFFIX);
+    }
+
+    /**
+     * Помещение скачанного ресурса в кэш.
+     *
+     * @param uri  адрес ресурса.
+     * @param temp временный файл с содержимым ресурса, созданный методом {@link #createTempFile()}.
+     * @throws IOException в случае ошибки перемещения файла.
+     */
+    synchronized void put(@NotNull URI uri, @NotNull Path temp) throws IOException {
+        String name = fileName(uri);
+        long size = Files.size(temp);
+        Files.move(temp, directory.resolve(name), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        Long previous = entries.put(name, size);
+        totalBytes += size - (previous != null ? previous : 0);
+        evict();
+    }
+
+    synchronized long getTotalBytes() {
+        return totalBytes;
+    }
+
+    private void evict() {
+        Iterator<Map.Entry<String, Long>> iterator = entries.entrySet().iterator();
+        while (totalBytes > maxBytes && iterator.hasNext()) {
+            Map.Entry<String, Long> entry = iterator.next();
+            try {
+                Files.deleteIfExists(directory.resolve(entry.getKey()));
+            } catch (IOException e) {
+                LOGGER.debug("Can't evict the cached package {}", entry.getKey(), e);
+            }
+            totalBytes -= entry.getValue();
+            iterator.remove();
+        }
+    }
+
+    /**
+     * Имя файла кэша. Пакеты одного репозитория на разных зеркалах одинаковы, поэтому для неизменных ресурсов
+     * хост не учитывается.
+     */
+    private static String fileName(URI uri) {
+        String key = isImmutable(uri) ? uri.getPath() : uri.getHost() + ":" + uri.getPort() + uri.getPath();
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            StringBuilder name = new StringBuilder();
+            for (byte b : digest.digest(key.getBytes(StandardCharsets.UTF_8))) {
+                name.append(String.format("%02x", b));
+            }
+            return name.append(SUFFIX).toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not supported", e);
+        }
+    }
+
+    private static FileTime lastModified(Path file) {
+        try {
+            return Files.getLastModifiedTime(file);
+        } catch (IOException e) {
+            return FileTime.fromMillis(0);
+        }
+    }
+}
@@ -0,0 +1,389 @@
+package com.github.javister.docker.testing.proxy;
+
+import com.github.javister.docker.testing.AsyncSupport;
+import com.github.javister.docker.testing.TestRunException;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.ConnectException;
+import java.net.HttpURLConnection;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.net.SocketTimeoutException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.UnknownHostException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Кэширующий HTTP прокси для пакетов RPM, работающий внутри JVM тестов.
+ *
+ * <p>Контейнеры, настроенные на этот прокси (см.
+ * {@link com.github.javister.docker.testing.base.JavisterBaseContainer#withPackageCache()}), получают пакеты и
+ * метаданные репозиториев из дискового кэша (см. {@link PackageCache}), а при их отсутствии - из репозитория через
+ * прокси, заданный переменной окружения {@code http_proxy} системы. Если репозиторий недоступен (ошибка соединения
+ * или ответ 5xx вышестоящего прокси), ранее скачанные ресурсы отдаются из кэша. HTTPS соединения (метод {@code CONNECT}) не кэшируются и передаются как есть.
+ *
+ * <p>Каталог и размер кэша задаются системными свойствами {@code javister.package.cache.dir} (по умолчанию
+ * {@code ~/.cache/javister/packages}) и {@code javister.package.cache.size} (в мегабайтах, по умолчанию 2048).
+ */
+public class PackageCacheProxy implements Closeable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(PackageCacheProxy.class);
+    private static final int CONNECT_TIMEOUT = 10_000;
+    private static final int READ_TIMEOUT = 60_000;
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int MAX_HEADER_SIZE = 64 * 1024;
+
+    private static PackageCacheProxy instance;
+
+    private final PackageCache cache;
+    private final Proxy upstream;
+    /**
+     * Потоки соединений. Соединения держат поток на всё время блокирующего ввода-вывода, а туннель - два потока,
+     * поэтому пул не ограничен и не разделяется с {@link AsyncSupport}.
+     */
+    private final ExecutorService connections =
+            Executors.newCachedThreadPool(AsyncSupport.daemonThreadFactory("javister-package-cache-proxy-"));
+    private ServerSocket serverSocket;
+
+    /**
+     * Создаёт прокси.
+     *
+     * @param cacheDir каталог кэша.
+     * @param maxBytes максимальный размер кэша в байтах.
+     * @param upstream прокси для обращения к репозиториям.
+     * @throws IOException в случае ошибки чтения каталога кэша.
+     */
+    public PackageCacheProxy(@NotNull Path cacheDir, long maxBytes, @NotNull Proxy upstream) throws IOException {
+        this.cache = new PackageCache(cacheDir, maxBytes);
+        this.upstream = upstream;
+    }
+
+    /**
+     * Получение общего для JVM прокси, запущенного при первом обращении.
+     *
+     * @return запущенный прокси.
+     */
+    @NotNull
+    public static synchronized PackageCacheProxy getInstance() {
+        if (instance == null) {
+            Path cacheDir = Paths.get(System.getProperty("javister.package.cache.dir",
+                    Paths.get(System.getProperty("user.home"), ".cache", "javister", "packages").toString()));
+            long maxBytes = Long.getLong("javister.package.cache.size", 2048) * 1024 * 1024;
+            try {
+                instance = new PackageCacheProxy(cacheDir, maxBytes, systemProxy()).start();
+            } catch (IOException e) {
+                throw new TestRunException("Can't start the package cache proxy", e);
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Запуск прокси на свободном порту loopback интерфейса хоста. Контейнеры обращаются к нему через туннель
+     * {@link org.testcontainers.Testcontainers#exposeHostPorts(int...)}, поэтому прокси недоступен из сети.
+     *
+     * @return возвращает this для fluent API.
+     * @throws IOException в случае ошибки открытия порта.
+     */
+    @NotNull
+    public synchronized PackageCacheProxy start() throws IOException {
+        if (serverSocket == null) {
+            serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+            Thread acceptor = new Thread(this::acceptLoop, "javister-package-cache-proxy");
+            acceptor.setDaemon(true);
+            acceptor.start();
+            LOGGER.info("Package cache proxy started on port {}", serverSocket.getLocalPort());
+        }
+        return this;
+    }
+
+    /**
+     * @return порт, на котором работает прокси.
+     */
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (serverSocket != null) {
+            serverSocket.close();
+        }
+        connections.shutdown();
+    }
+
+    private void acceptLoop() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket client = serverSocket.accept();
+                connections.execute(() -> handle(client));
+            } catch (IOException e) {
+                if (!serverSocket.isClosed()) {
+                    LOGGER.warn("Package cache proxy can't accept a connection", e);
+                }
+            }
+        }
+    }
+
+    private void handle(Socket client) {
+        try (Socket socket = client) {
+            socket.setSoTimeout(READ_TIMEOUT);
+            InputStream in = new BufferedInputStream(socket.getInputStream());
+            String head = readHead(in);
+            if (head == null) {
+                return;
+            }
+            String[] requestLine = head.substring(0, head.indexOf("\r\n")).split(" ");
+            OutputStream out = socket.getOutputStream();
+            if (requestLine.length != 3) {
+                respond(out, 400, "Bad Request");
+                return;
+            }
+            String method = requestLine[0].toUpperCase(Locale.ROOT);
+            if ("CONNECT".equals(method)) {
+                tunnel(socket, in, out, head, requestLine[1]);
+            } else if ("GET".equals(method) || "HEAD".equals(method)) {
+                get(out, new URI(requestLine[1]), "HEAD".equals(method));
+            } else {
+                respond(out, 501, "Not Implemented");
+            }
+        } catch (IOException | URISyntaxException e) {
+            LOGGER.debug("Package cache proxy request failed", e);
+        }
+    }
+
+    private void get(OutputStream out, URI uri, boolean headOnly) throws IOException {
+        if (!"http".equalsIgnoreCase(uri.getScheme())) {
+            respond(out, 400, "Bad Request");
+            return;
+        }
+        boolean cacheable = PackageCache.isCacheable(uri);
+        if (PackageCache.isImmutable(uri) && serveCached(out, uri, headOnly)) {
+            return;
+        }
+
+        HttpURLConnection connection;
+        int status;
+        try {
+            connection = (HttpURLConnection) uri.toURL().openConnection(upstream);
+            connection.setConnectTimeout(CONNECT_TIMEOUT);
+            connection.setReadTimeout(READ_TIMEOUT);
+            connection.setInstanceFollowRedirects(false);
+            status = connection.getResponseCode();
+        } catch (IOException e) {
+            // Репозиторий недоступен - работаем из кэша
+            if (cacheable && serveCached(out, uri, headOnly)) {
+                return;
+            }
+            LOGGER.debug("Package cache proxy can't fetch {}", uri, e);
+            respond(out, 502, "Bad Gateway");
+            return;
+        }
+
+        if (status >= 500 && cacheable && serveCached(out, uri, headOnly)) {
+            // Вышестоящий прокси сообщил о недоступности репозитория
+            connection.disconnect();
+            return;
+        }
+
+        try {
+            long length = connection.getContentLengthLong();
+            StringBuilder header = new StringBuilder("HTTP/1.1 ").append(status).append(' ')
+                    .append(connection.getResponseMessage() != null ? connection.getResponseMessage() : "").append("\r\n");
+            String contentType = connection.getContentType();
+            if (contentType != null) {
+                header.append("Content-Type: ").append(contentType).append("\r\n");
+            }
+            String location = connection.getHeaderField("Location");
+            if (location != null) {
+                header.append("Location: ").append(location).append("\r\n");
+            }
+            if (length >= 0) {
+                header.append("Content-Length: ").append(length).append("\r\n");
+            }
+            header.append("Connection: close\r\n\r\n");
+            out.write(header.toString().getBytes(StandardCharsets.ISO_8859_1));
+            if (headOnly) {
+                return;
+            }
+            InputStream body = status >= 400 ? connection.getErrorStream() : connection.getInputStream();
+            if (body == null) {
+                return;
+            }
+            try (InputStream in = body) {
+                if (status == 200 && cacheable) {
+                    copyAndCache(in, out, uri, length);
+                } else {
+                    copy(in, out);
+                }
+            }
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    private boolean serveCached(OutputStream out, URI uri, boolean headOnly) throws IOException {
+        Path file = cache.get(uri);
+        if (file == null) {
+            return false;
+        }
+        InputStream in;
+        try {
+            in = Files.newInputStream(file);
+        } catch (IOException e) {
+            // Файл вытеснен из кэша параллельным запросом
+            return false;
+        }
+        try (InputStream body = in) {
+            out.write(("HTTP/1.1 200 OK\r\n"
+                    + "Content-Type: application/octet-stream\r\n"
+                    + "Content-Length: " + Files.size(file) + "\r\n"
+                    + "Connection: close\r\n\r\n").getBytes(StandardCharsets.ISO_8859_1));
+            if (!headOnly) {
+                copy(body, out);
+            }
+        }
+        return true;
+    }
+
+    private void copyAndCache(InputStream in, OutputStream out, URI uri, long length) throws IOException {
+        Path temp = cache.createTempFile();
+        boolean complete = false;
+        try {
+            try (OutputStream file = Files.newOutputStream(temp)) {
+                byte[] buffer = new byte[BUFFER_SIZE];
+                long total = 0;
+                int read;
+                while ((read = in.read(buffer)) >= 0) {
+                    file.write(buffer, 0, read);
+                    out.write(buffer, 0, read);
+                    total += read;
+                }
+                complete = length < 0 || total == length;
+            }
+            if (complete) {
+                cache.put(uri, temp);
+            }
+        } finally {
+            if (!complete) {
+                Files.deleteIfExists(temp);
+            }
+        }
+    }
+
+    private void tunnel(Socket client, InputStream in, OutputStream out, String head, String authority) throws IOException {
+        InetSocketAddress upstreamAddress = upstream.type() == Proxy.Type.HTTP ? (InetSocketAddress) upstream.address() : null;
+        try (Socket target = new Socket()) {
+            if (upstreamAddress != null) {
+                target.connect(upstreamAddress, CONNECT_TIMEOUT);
+                // Вышестоящий прокси сам ответит на CONNECT
+                target.getOutputStream().write(head.getBytes(StandardCharsets.ISO_8859_1));
+            } else {
+                int colon = authority.lastIndexOf(':');
+                if (colon < 0) {
+                    respond(out, 400, "Bad Request");
+                    return;
+                }
+                target.connect(new InetSocketAddress(authority.substring(0, colon),
+                        Integer.parseInt(authority.substring(colon + 1))), CONNECT_TIMEOUT);
+                out.write("HTTP/1.1 200 Connection established\r\n\r\n".getBytes(StandardCharsets.ISO_8859_1));
+            }
+            client.setSoTimeout(0);
+            connections.execute(() -> {
+                try {
+                    copy(target.getInputStream(), out);
+                } catch (IOException e) {
+                    LOGGER.trace("Tunnel to {} closed", authority, e);
+                } finally {
+                    closeQuietly(client);
+                }
+            });
+            try {
+                copy(in, target.getOutputStream());
+            } catch (SocketException e) {
+                LOGGER.trace("Tunnel to {} closed", authority, e);
+            }
+        } catch (NumberFormatException e) {
+            respond(out, 400, "Bad Request");
+        } catch (ConnectException | SocketTimeoutException | UnknownHostException e) {
+            LOGGER.debug("Package cache proxy can't connect to {}", authority, e);
+            respond(out, 502, "Bad Gateway");
+        }
+    }
+
+    @Nullable
+    private static String readHead(InputStream in) throws IOException {
+        ByteArrayOutputStream head = new ByteArrayOutputStream();
+        int matched = 0;
+        int b;
+        while ((b = in.read()) >= 0) {
+            head.write(b);
+            matched = (b == '\r' && matched % 2 == 0) || (b == '\n' && matched % 2 == 1) ? matched + 1 : 0;
+            if (matched == 4) {
+                return head.toString(StandardCharsets.ISO_8859_1.name());
+            }
+            if (head.size() > MAX_HEADER_SIZE) {
+                return null;
+            }
+        }
+        return null;
+    }
+
+    private static void respond(OutputStream out, int status, String message) throws IOException {
+        out.write(("HTTP/1.1 " + status + " " + message + "\r\nContent-Length: 0\r\nConnection: close\r\n\r\n")
+                .getBytes(StandardCharsets.ISO_8859_1));
+    }
+
+    private static void copy(InputStream in, OutputStream out) throws IOException {
+        byte[] buffer = new byte[BUFFER_SIZE];
+        int read;
+        while ((read = in.read(buffer)) >= 0) {
+            out.write(buffer, 0, read);
+        }
+        out.flush();
+    }
+
+    private static void closeQuietly(Socket socket) {
+        try {
+            socket.close();
+        } catch (IOException e) {
+            LOGGER.trace("Can't close the socket", e);
+        }
+    }
+
+    /**
+     * Прокси для обращения к репозиториям из переменной окружения {@code http_proxy} системы.
+     */
+    private static Proxy systemProxy() {
+        String httpProxy = System.getenv("http_proxy");
+        if (httpProxy == null || httpProxy.isEmpty()) {
+            return Proxy.NO_PROXY;
+        }
+        try {
+            URI uri = new URI(httpProxy.contains("://") ? httpProxy : "http://" + httpProxy);
+            return new Proxy(Proxy.Type.HTTP, new InetSocketAddress(uri.getHost(), uri.getPort() > 0 ? uri.getPort() : 80));
+        } catch (URISyntaxException e) {
+            LOGGER.warn("Can't parse http_proxy {}, connecting to repositories directly", httpProxy, e);
+            return Proxy.NO_PROXY;
+        }
+    }
+}
@@ -0,0 +1,272 @@
+package com.github.javister.docker.testing.reuse;
+
+import com.github.dockerjava.api.DockerClient;
+import com.github.dockerjava.api.exception.NotFoundException;
+import com.github.dockerjava.api.model.Bind;
+import com.github.dockerjava.api.model.Container;
+import com.github.javister.docker.testing.AsyncSupport;
+import com.github.javister.docker.testing.TestRunException;
+import com.github.javister.docker.testing.runit.ServiceState;
+import com.github.javister.docker.testing.runit.ServiceStatus;
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testcontainers.containers.GenericContainer;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Поддержка переиспользования контейнеров между запусками JVM.
+ *
+ * <p>Переиспользование основано на механизме reuse testcontainers и, как и он, работает только если оно разрешено
+ * в окружении ({@code testcontainers.reuse.enable=true} в {@code ~/.testcontainers.properties}), то есть
+ * при локальной разработке, но не на CI. Дополнительно:
+ * <ul>
+ *     <li>контейнер помечается отпечатком конфигурации ({@link #FINGERPRINT_LABEL}), включающим идентификатор
+ *     образа, так что обновлённый под тем же тегом образ не переиспользует старый контейнер;</li>
+ *     <li>перед переиспользованием проверяется, что все сервисы runit контейнера работают;</li>
+ *     <li>переиспользованные контейнеры, не использовавшиеся дольше заданного времени простоя
+ *     ({@link #IDLE_TIMEOUT_LABEL}), удаляются при следующем запуске тестов.</li>
+ * </ul>
+ * Время последнего использования контейнеров хранится в каталоге {@code ~/.cache/javister/reuse} и обновляется
+ * каждые {@link #REFRESH_INTERVAL}, пока контейнер используется JVM, так что длительный запуск тестов не теряет свой
+ * контейнер. Поэтому время простоя должно быть не меньше двух таких интервалов.
+ */
+public final class ContainerReuse {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ContainerReuse.class);
+
+    /**
+     * Метка с отпечатком конфигурации контейнера.
+     */
+    public static final String FINGERPRINT_LABEL = "com.github.javister.reuse.fingerprint";
+    /**
+     * Метка с допустимым временем простоя контейнера в секундах.
+     */
+    public static final String IDLE_TIMEOUT_LABEL = "com.github.javister.reuse.idle-timeout";
+    /**
+     * Время простоя по умолчанию.
+     */
+    public static final Duration DEFAULT_IDLE_TIMEOUT = Duration.ofHours(1);
+    /**
+     * Интервал обновления времени последнего использования контейнеров, используемых текущей JVM.
+     */
+    public static final Duration REFRESH_INTERVAL = Duration.ofMinutes(1);
+
+    private static final Path STATE_DIRECTORY = Paths.get(System.getProperty("user.home"), ".cache", "javister", "reuse");
+    private static final AtomicBoolean IDLE_CLEANED = new AtomicBoolean();
+    private static final Set<String> USED_CONTAINERS = ConcurrentHashMap.newKeySet();
+    private static final AtomicBoolean REFRESH_STARTED = new AtomicBoolean();
+
+    static {
+        // Время простоя отсчитывается от завершения последней использовавшей контейнер JVM
+        Runtime.getRuntime().addShutdownHook(new Thread(
+                () -> USED_CONTAINERS.forEach(ContainerReuse::touch),
+                "javister-reuse-touch"));
+    }
+
+    private ContainerReuse() {
+    }
+
+    /**
+     * Вычисление отпечатка конфигурации контейнера: идентификатора образа, переменных окружения, биндингов,
+     * сетевых алиасов, открытых портов, команды и меток.
+     *
+     * @param container контейнер.
+     * @return отпечаток конфигурации.
+     */
+    @NotNull
+    public static String fingerprint(@NotNull GenericContainer<?> container) {
+        String imageId = container.getDockerClient().inspectImageCmd(container.getDockerImageName()).exec().getId();
+        List<String> binds = new ArrayList<>();
+        for (Bind bind : container.getBinds()) {
+            binds.add(bind.getPath() + ":" + bind.getVolume() + ":" + bind.getAccessMode());
+        }
+        Collections.sort(binds);
+        List<String> aliases = new ArrayList<>(container.getNetworkAliases());
+        Collections.sort(aliases);
+        List<Integer> ports = new ArrayList<>(container.getExposedPorts());
+        Collections.sort(ports);
+        Map<String, String> labels = new TreeMap<>(container.getLabels());
+        labels.remove(FINGERPRINT_LABEL);
+        return fingerprint(
+                imageId,
+                new TreeMap<>(container.getEnvMap()).toString(),
+                binds.toString(),
+                aliases.toString(),
+                ports.toString(),
+                Arrays.toString(container.getCommandParts()),
+                labels.toString());
+    }
+
+    @NotNull
+    static String fingerprint(@NotNull String... parts) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (String part : parts) {
+                digest.update(String.valueOf(part).getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) 0);
+            }
+            StringBuilder result = new StringBuilder();
+            for (byte b : digest.digest()) {
+                result.append(String.format("%02x", b));
+            }
+            return result.substring(0, 32);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not supported", e);
+        }
+    }
+
+    /**
+     * Проверка исправности переиспользуемого контейнера: все сервисы runit, запускаемые при старте, должны работать.
+     *
+     * @param services состояния сервисов runit контейнера.
+     * @throws UnhealthyContainerException если какой-либо из сервисов не работает.
+     */
+    public static void checkHealth(@NotNull Map<String, ServiceStatus> services) {
+        for (ServiceStatus service : services.values()) {
+            if (service.isNormallyUp() && (service.getState() != ServiceState.RUN || service.isPaused())) {
+                throw new UnhealthyContainerException("Service " + service.getName() + " is " + service.getState());
+            }
+        }
+    }
+
+    /**
+     * Проверка, вызвана ли ошибка старта контейнера неисправностью переиспользуемого контейнера.
+     *
+     * @param error ошибка старта контейнера.
+     * @return true, если среди причин ошибки есть {@link UnhealthyContainerException}.
+     */
+    public static boolean isUnhealthy(@NotNull Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof UnhealthyContainerException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Отметка использования переиспользуемого контейнера.
+     *
+     * @param containerId идентификатор контейнера.
+     */
+    public static void markUsed(@NotNull String containerId) {
+        USED_CONTAINERS.add(containerId);
+        touch(containerId);
+        if (REFRESH_STARTED.compareAndSet(false, true)) {
+            Executors.newSingleThreadScheduledExecutor(AsyncSupport.daemonThreadFactory("javister-reuse-refresh-"))
+                    .scheduleWithFixedDelay(
+                            () -> USED_CONTAINERS.forEach(ContainerReuse::touch),
+                            REFRESH_INTERVAL.toMillis(),
+                            REFRESH_INTERVAL.toMillis(),
+                            TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private static void touch(String containerId) {
+        try {
+            Files.createDirectories(STATE_DIRECTORY);
+            Path file = STATE_DIRECTORY.resolve(containerId);
+            if (!Files.exists(file)) {
+                Files.createFile(file);
+            }
+            Files.setLastModifiedTime(file, FileTime.from(Instant.now()));
+        } catch (IOException e) {
+            LOGGER.debug("Can't mark the container {} as used", containerId, e);
+        }
+    }
+
+    /**
+     * Удаление переиспользуемых контейнеров, простаивающих дольше допустимого времени. Выполняется один раз за JVM.
+     *
+     * @param client клиент Docker.
+     */
+    public static void removeIdleContainers(@NotNull DockerClient client) {
+        if (!IDLE_CLEANED.compareAndSet(false, true)) {
+            return;
+        }
+        Instant now = Instant.now();
+        List<Container> containers;
+        try {
+            containers = client.listContainersCmd()
+                    .withShowAll(true)
+                    .withLabelFilter(Collections.singletonList(IDLE_TIMEOUT_LABEL))
+                    .exec();
+        } catch (RuntimeException e) {
+            LOGGER.debug("Can't list reusable containers", e);
+            return;
+        }
+        for (Container container : containers) {
+            Instant lastUsed = lastUsed(container);
+            Duration idleTimeout = idleTimeout(container.getLabels().get(IDLE_TIMEOUT_LABEL));
+            if (lastUsed.plus(idleTimeout).isAfter(now)) {
+                continue;
+            }
+            LOGGER.info("Removing the reusable container {} idle since {}", container.getId(), lastUsed);
+            try {
+                client.removeContainerCmd(container.getId()).withForce(true).withRemoveVolumes(true).exec();
+            } catch (NotFoundException e) {
+                LOGGER.debug("Container {} is already removed", container.getId());
+            } catch (RuntimeException e) {
+                LOGGER.warn("Can't remove the idle container {}", container.getId(), e);
+                continue;
+            }
+            try {
+                Files.deleteIfExists(STATE_DIRECTORY.resolve(container.getId()));
+            } catch (IOException e) {
+                LOGGER.debug("Can't delete the state of the container {}", container.getId(), e);
+            }
+        }
+    }
+
+    private static Instant lastUsed(Container container) {
+        try {
+            return Files.getLastModifiedTime(STATE_DIRECTORY.resolve(container.getId())).toInstant();
+        } catch (IOException e) {
+            // Контейнер создан на другой машине или состояние удалено: отсчёт от создания контейнера
+            return Instant.ofEpochSecond(container.getCreated() != null ? container.getCreated() : 0);
+        }
+    }
+
+    @NotNull
+    static Duration idleTimeout(String label) {
+        try {
+            return label != null ? Duration.ofSeconds(Long.parseLong(label.trim())) : DEFAULT_IDLE_TIMEOUT;
+        } catch (NumberFormatException e) {
+            return DEFAULT_IDLE_TIMEOUT;
+        }
+    }
+
+    /**
+     * Исключение, посылаемое если найденный для переиспользования контейнер неисправен.
+     */
+    public static class UnhealthyContainerException extends TestRunException {
+        public UnhealthyContainerException(String message) {
+            super(message);
+        }
+
+        public UnhealthyContainerException(String message, Throwable cause) {
+            super(message, cause);
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.github.javister.docker.testing.runit;
+
+/**
+ * Состояние сервиса runit.
+ */
+public enum ServiceState {
+    /**
+     * Сервис остановлен.
+     */
+    DOWN,
+    /**
+     * Сервис запущен.
+     */
+    RUN,
+    /**
+     * Выполняется скрипт {@code finish} сервиса.
+     */
+    FINISH,
+    /**
+     * Состояние неизвестно: runit ещё не запустил надзор за сервисом.
+     */
+    UNKNOWN
+}
@@ -0,0 +1,245 @@
+package com.github.javister.docker.testing.runit;
+
+import com.github.javister.docker.testing.IllegalExecResultException;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.testcontainers.containers.Container.ExecResult;
+import org.testcontainers.containers.ContainerState;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Состояние сервиса runit, прочитанное из файла {@code /etc/service/<сервис>/supervise/status}.
+ */
+public class ServiceStatus {
+    /**
+     * Размер файла {@code supervise/status} в runit 2.x.
+     */
+    static final int STATUS_SIZE = 20;
+    /**
+     * Смещение меток времени TAI64 относительно времени Unix: 2^62 + 10 секунд.
+     */
+    private static final long TAI64_OFFSET = 4611686018427387914L;
+
+    /**
+     * Скрипт, выводящий в одном вызове текущее время контейнера в наносекундах и состояние всех сервисов по одному
+     * на строку: {@code <сервис> <u|d> <содержимое supervise/status в hex>}, где d - наличие файла {@code down}.
+     */
+    private static final String SNAPSHOT_SCRIPT = "date +%s%N; for d in /etc/service/*/; do [ -d \"$d\" ] || continue; d=${d%/}; "
+            + "printf '%s ' \"${d##*/}\"; if [ -e \"$d/down\" ]; then printf 'd '; else printf 'u '; fi; "
+            + "[ -r \"$d/supervise/status\" ] && od -An -v -tx1 \"$d/supervise/status\" | tr -d ' \\n'; echo; done";
+
+    private final String name;
+    private final ServiceState state;
+    private final Integer pid;
+    private final Instant since;
+    private final Duration uptime;
+    private final boolean paused;
+    private final boolean wantUp;
+    private final boolean normallyUp;
+
+    public ServiceStatus(
+            @NotNull String name,
+            @NotNull ServiceState state,
+            @Nullable Integer pid,
+            @Nullable Instant since,
+            @Nullable Duration uptime,
+            boolean paused,
+            boolean wantUp,
+            boolean normallyUp) {
+        this.name = name;
+        this.state = state;
+        this.pid = pid;
+        this.since = since;
+        this.uptime = uptime;
+        this.paused = paused;
+        this.wantUp = wantUp;
+        this.normallyUp = normallyUp;
+    }
+
+    /**
+     * Чтение состояния всех сервисов runit контейнера одним вызовом команды в контейнере.
+     *
+     * @param container контейнер.
+     * @return состояния сервисов по их именам.
+     * @throws IOException          в случае ошибки выполнения команды в контейнере.
+     * @throws InterruptedException если ожидание выполнения команды было прервано.
+     */
+    @NotNull
+    public static Map<String, ServiceStatus> read(@NotNull ContainerState container) throws IOException, InterruptedException {
+        ExecResult result = container.execInContainer("sh", "-c", SNAPSHOT_SCRIPT);
+        if (result.getExitCode() != 0) {
+            throw new IllegalExecResultException("Can't read the runit services status: " + result.getStderr());
+        }
+        return parseSnapshot(result.getStdout());
+    }
+
+    /**
+     * Разбор вывода скрипта снимка состояния сервисов.
+     *
+     * @param snapshot вывод скрипта.
+     * @return состояния сервисов по их именам.
+     */
+    @NotNull
+    static Map<String, ServiceStatus> parseSnapshot(@NotNull String snapshot) {
+        String[] lines = snapshot.split("\n");
+        long nowNanos = Long.parseLong(lines[0].trim());
+        Map<String, ServiceStatus> result = new LinkedHashMap<>();
+        for (int i = 1; i < lines.length; i++) {
+            String line = lines[i].trim();
+            if (line.isEmpty()) {
+                continue;
+            }
+            String[] fields = line.split(" +");
+            String name = fields[0];
+            boolean normallyUp = fields.length < 2 || !"d".equals(fields[1]);
+            String hex = fields.length < 3 ? "" : fields[2];
+            result.put(name, parse(name, normallyUp, hexToBytes(hex), nowNanos));
+        }
+        return Collections.unmodifiableMap(result);
+    }
+
+    /**
+     * Разбор содержимого файла {@code supervise/status}.
+     *
+     * @param name       имя сервиса.
+     * @param normallyUp запускается ли сервис при старте runit (нет файла {@code down}).
+     * @param status     содержимое файла.
+     * @param nowNanos   текущее время контейнера в наносекундах Unix, относительно которого вычисляется время работы
+     *                   сервиса.
+     * @return состояние сервиса.
+     */
+    @NotNull
+    static ServiceStatus parse(@NotNull String name, boolean normallyUp, @NotNull byte[] status, long nowNanos) {
+        if (status.length < STATUS_SIZE) {
+            return new ServiceStatus(name, ServiceState.UNKNOWN, null, null, null, false, false, normallyUp);
+        }
+        long tai = 0;
+        for (int i = 0; i < 8; i++) {
+            tai = (tai << 8) | (status[i] & 0xFF);
+        }
+        long seconds = tai - TAI64_OFFSET;
+        long nanos = (status[8] & 0xFFL) << 24
+                | (status[9] & 0xFF) << 16
+                | (status[10] & 0xFF) << 8
+                | (status[11] & 0xFF);
+        Instant since = Instant.ofEpochSecond(seconds, nanos);
+        int pid = (status[12] & 0xFF)
+                | (status[13] & 0xFF) << 8
+                | (status[14] & 0xFF) << 16
+                | (status[15] & 0xFF) << 24;
+        ServiceState state;
+        switch (status[19]) {
+            case 0:
+                state = ServiceState.DOWN;
+                break;
+            case 1:
+                state = ServiceState.RUN;
+                break;
+            case 2:
+                state = ServiceState.FINISH;
+                break;
+            default:
+                state = ServiceState.UNKNOWN;
+                break;
+        }
+        return new ServiceStatus(
+                name,
+                state,
+                pid != 0 ? pid : null,
+                since,
+                Duration.ofNanos(Math.max(0, nowNanos - (seconds * 1_000_000_000L + nanos))),
+                status[16] != 0,
+                status[17] == 'u',
+                normallyUp);
+    }
+
+    private static byte[] hexToBytes(String hex) {
+        byte[] bytes = new byte[hex.length() / 2];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) Integer.parseInt(hex.substring(i * 2, i * 2 + 2), 16);
+        }
+        return bytes;
+    }
+
+    @NotNull
+    public String getName() {
+        return name;
+    }
+
+    @NotNull
+    public ServiceState getState() {
+        return state;
+    }
+
+    /**
+     * Идентификатор процесса сервиса.
+     *
+     * @return идентификатор процесса или null, если сервис не запущен.
+     */
+    @Nullable
+    public Integer getPid() {
+        return pid;
+    }
+
+    /**
+     * Время последней смены состояния сервиса.
+     *
+     * @return время последней смены состояния или null, если состояние неизвестно.
+     */
+    @Nullable
+    public Instant getSince() {
+        return since;
+    }
+
+    /**
+     * Время нахождения сервиса в текущем состоянии.
+     *
+     * @return время нахождения в текущем состоянии или null, если состояние неизвестно.
+     */
+    @Nullable
+    public Duration getUptime() {
+        return uptime;
+    }
+
+    /**
+     * Признак приостановки сервиса ({@code sv pause}).
+     *
+     * @return true, если сервис приостановлен.
+     */
+    public boolean isPaused() {
+        return paused;
+    }
+
+    /**
+     * Признак того, что runit должен поддерживать сервис запущенным.
+     *
+     * @return true, если сервис должен быть запущен.
+     */
+    public boolean isWantUp() {
+        return wantUp;
+    }
+
+    /**
+     * Признак того, что сервис запускается при старте runit (отсутствует файл {@code down}).
+     *
+     * @return true, если сервис запускается при старте runit.
+     */
+    public boolean isNormallyUp() {
+        return normallyUp;
+    }
+
+    @Override
+    public String toString() {
+        return name + ": " + state.name().toLowerCase(Locale.ROOT)
+                + (pid != null ? " (pid " + pid + ")" : "")
+                + (uptime != null ? " " + uptime.getSeconds() + "s" : "")
+                + (paused ? ", paused" : "");
+    }
+}
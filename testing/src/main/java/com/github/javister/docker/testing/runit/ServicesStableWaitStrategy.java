@@ -0,0 +1,130 @@
+package com.github.javister.docker.testing.runit;
+
+import org.jetbrains.annotations.NotNull;
+import org.testcontainers.containers.ContainerLaunchException;
+import org.testcontainers.containers.wait.strategy.AbstractWaitStrategy;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Стратегия ожидания стабильной работы сервисов runit: все сервисы находятся в состоянии {@code run} не менее
+ * заданного времени.
+ *
+ * <p>Состояние всех сервисов читается одним вызовом команды в контейнере (см. {@link ServiceStatus#read}).
+ * Если сервис перезапускается чаще допустимого (crash loop), то ожидание прерывается ошибкой, не дожидаясь таймаута.
+ *
+ * <p>По умолчанию проверяются все сервисы, запускаемые при старте runit (без файла {@code down}).
+ */
+public class ServicesStableWaitStrategy extends AbstractWaitStrategy {
+    private static final long POLL_INTERVAL_MILLIS = 250;
+
+    private Duration minUptime = Duration.ofSeconds(1);
+    private int maxRestarts = 3;
+    private Set<String> services = new LinkedHashSet<>();
+
+    /**
+     * Задаёт минимальное время работы сервисов.
+     *
+     * @param minUptime минимальное время нахождения сервисов в состоянии {@code run}.
+     * @return возвращает this для fluent API.
+     */
+    @NotNull
+    public ServicesStableWaitStrategy withMinUptime(@NotNull Duration minUptime) {
+        this.minUptime = minUptime;
+        return this;
+    }
+
+    /**
+     * Задаёт количество перезапусков сервиса, после которого он считается упавшим в цикл перезапусков.
+     *
+     * @param maxRestarts допустимое количество перезапусков сервиса за время ожидания.
+     * @return возвращает this для fluent API.
+     */
+    @NotNull
+    public ServicesStableWaitStrategy withMaxRestarts(int maxRestarts) {
+        this.maxRestarts = maxRestarts;
+        return this;
+    }
+
+    /**
+     * Задаёт сервисы, стабильную работу которых необходимо дождаться.
+     *
+     * @param services имена сервисов.
+     * @return возвращает this для fluent API.
+     */
+    @NotNull
+    public ServicesStableWaitStrategy withServices(@NotNull String... services) {
+        this.services = new LinkedHashSet<>(Arrays.asList(services));
+        return this;
+    }
+
+    @Override
+    protected void waitUntilReady() {
+        long deadline = System.nanoTime() + startupTimeout.toNanos();
+        Map<String, Integer> lastPids = new HashMap<>();
+        Map<String, Integer> restarts = new HashMap<>();
+        Collection<ServiceStatus> pending;
+        try {
+            while (true) {
+                Map<String, ServiceStatus> snapshot = ServiceStatus.read(waitStrategyTarget);
+                pending = getPending(snapshot);
+                for (ServiceStatus status : snapshot.values()) {
+                    detectRestart(status, lastPids, restarts);
+                }
+                if (pending.isEmpty()) {
+                    return;
+                }
+                if (System.nanoTime() > deadline) {
+                    break;
+                }
+                TimeUnit.MILLISECONDS.sleep(POLL_INTERVAL_MILLIS);
+            }
+        } catch (IOException e) {
+            throw new ContainerLaunchException("Can't read the runit services status", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ContainerLaunchException("Interrupted while waiting for the runit services", e);
+        }
+        throw new ContainerLaunchException("Timed out waiting for the runit services: " + pending.stream()
+                .map(ServiceStatus::toString)
+                .collect(Collectors.joining(", ")));
+    }
+
+    private Collection<ServiceStatus> getPending(Map<String, ServiceStatus> snapshot) {
+        Collection<ServiceStatus> pending = snapshot.values().stream()
+                .filter(it -> services.isEmpty() ? it.isNormallyUp() : services.contains(it.getName()))
+                .filter(it -> it.getState() != ServiceState.RUN
+                        || it.getUptime() == null
+                        || it.getUptime().compareTo(minUptime) < 0)
+                .collect(Collectors.toList());
+        for (String service : services) {
+            if (!snapshot.containsKey(service)) {
+                pending.add(new ServiceStatus(service, ServiceState.UNKNOWN, null, null, null, false, false, true));
+            }
+        }
+        return pending;
+    }
+
+    private void detectRestart(ServiceStatus status, Map<String, Integer> lastPids, Map<String, Integer> restarts) {
+        if (status.getState() != ServiceState.RUN || status.getPid() == null) {
+            return;
+        }
+        Integer lastPid = lastPids.put(status.getName(), status.getPid());
+        if (lastPid != null && !lastPid.equals(status.getPid())) {
+            int count = restarts.merge(status.getName(), 1, Integer::sum);
+            if (count > maxRestarts) {
+                throw new ContainerLaunchException("Service " + status.getName() + " is in a crash loop: restarted "
+                        + count + " times");
+            }
+        }
+    }
+}
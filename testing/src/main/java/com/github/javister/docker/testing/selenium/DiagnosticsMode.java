@@ -0,0 +1,19 @@
+package com.github.javister.docker.testing.selenium;
+
+/**
+ * Режим сбора диагностической информации браузера: снимка экрана, исходного кода страницы и логов консоли браузера.
+ */
+public enum DiagnosticsMode {
+    /**
+     * Диагностическая информация не собирается.
+     */
+    NONE,
+    /**
+     * Диагностическая информация собирается только при падении теста.
+     */
+    ON_FAILURE,
+    /**
+     * Диагностическая информация собирается после каждого теста.
+     */
+    ALWAYS
+}
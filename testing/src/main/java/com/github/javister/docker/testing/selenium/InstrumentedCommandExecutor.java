@@ -0,0 +1,76 @@
+package com.github.javister.docker.testing.selenium;
+
+import org.jetbrains.annotations.NotNull;
+import org.openqa.selenium.remote.Command;
+import org.openqa.selenium.remote.DriverCommand;
+import org.openqa.selenium.remote.ErrorCodes;
+import org.openqa.selenium.remote.HttpCommandExecutor;
+import org.openqa.selenium.remote.Response;
+
+import java.io.IOException;
+import java.net.URL;
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Исполнитель команд WebDriver, замеряющий длительность выполнения каждой команды.
+ */
+public class InstrumentedCommandExecutor extends HttpCommandExecutor {
+    private final WebDriverMetrics metrics;
+    private volatile long implicitlyWaitNanos;
+
+    /**
+     * Создаёт исполнитель команд.
+     *
+     * @param addressOfRemoteServer адрес Selenium сервера.
+     * @param metrics               статистика, в которую записываются замеры.
+     */
+    public InstrumentedCommandExecutor(@NotNull URL addressOfRemoteServer, @NotNull WebDriverMetrics metrics) {
+        super(addressOfRemoteServer);
+        this.metrics = metrics;
+    }
+
+    /**
+     * Задаёт величину имплицитного ожидания сессии, по которой определяются пустые результаты поиска элементов,
+     * вернувшиеся по истечению ожидания.
+     *
+     * @param millis величина имплицитного ожидания в миллисекундах.
+     */
+    public void setImplicitlyWait(long millis) {
+        this.implicitlyWaitNanos = TimeUnit.MILLISECONDS.toNanos(millis);
+    }
+
+    @Override
+    public Response execute(Command command) throws IOException {
+        long start = System.nanoTime();
+        Response response = null;
+        try {
+            response = super.execute(command);
+            return response;
+        } finally {
+            long nanos = System.nanoTime() - start;
+            boolean failed = response == null || (response.getStatus() != null && response.getStatus() != ErrorCodes.SUCCESS);
+            metrics.record(command.getName(), nanos, failed);
+            if (response != null && isImplicitWaitTimeout(command.getName(), response, nanos)) {
+                metrics.recordImplicitWaitTimeout();
+            }
+        }
+    }
+
+    private boolean isImplicitWaitTimeout(String name, Response response, long nanos) {
+        switch (name) {
+            case DriverCommand.FIND_ELEMENT:
+            case DriverCommand.FIND_CHILD_ELEMENT:
+                return response.getStatus() != null && response.getStatus() == ErrorCodes.NO_SUCH_ELEMENT;
+            case DriverCommand.FIND_ELEMENTS:
+            case DriverCommand.FIND_CHILD_ELEMENTS:
+                // Пустой список возвращается только после истечения имплицитного ожидания
+                return implicitlyWaitNanos > 0
+                        && nanos >= implicitlyWaitNanos
+                        && response.getValue() instanceof Collection
+                        && ((Collection<?>) response.getValue()).isEmpty();
+            default:
+                return false;
+        }
+    }
+}
@@ -1,16 +1,23 @@
 package com.github.javister.docker.testing.selenium;
 
+import com.github.javister.docker.testing.IllegalTestConfigurationException;
 import com.github.javister.docker.testing.TestRunException;
 import com.github.javister.docker.testing.TestServiceContainer;
+import org.jetbrains.annotations.Nullable;
+import org.openqa.selenium.Capabilities;
 import org.openqa.selenium.remote.BrowserType;
 import org.openqa.selenium.remote.DesiredCapabilities;
 import org.openqa.selenium.remote.RemoteWebDriver;
+import org.rnorth.ducttape.unreliables.Unreliables;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.testcontainers.containers.BindMode;
 import org.testcontainers.containers.BrowserWebDriverContainer;
 import org.testcontainers.shaded.org.zeroturnaround.exec.stream.slf4j.Slf4jStream;
 import org.zeroturnaround.exec.ProcessExecutor;
 
 import java.io.IOException;
+import java.time.Duration;
 import java.time.ZonedDateTime;
 import java.util.Objects;
 import java.util.concurrent.TimeUnit;
@@ -21,11 +28,28 @@ import java.util.concurrent.TimeoutException;
  * инфраструктуре с приложением на базе НТП.
  */
 public class JavisterWebDriverContainer extends BrowserWebDriverContainer<JavisterWebDriverContainer> {
+    private static final Logger LOGGER = LoggerFactory.getLogger(JavisterWebDriverContainer.class);
+    private static final int DRIVER_START_TIMEOUT = 30;
+    /**
+     * Память, выделяемая на одну сессию браузера при определении количества сессий по ограничению памяти.
+     */
+    private static final long SESSION_MEMORY = 512L * 1024 * 1024;
     private static final boolean USE_LOCAL_X_SERVER = Boolean.parseBoolean(System.getProperty("stand.use.local.x.server", ""));
     private TestServiceContainer appContainer;
     private DesiredCapabilities desiredCapabilities;
+    /**
+     * Свойства браузера, переданные в {@link #withCapabilities(Capabilities)}: базовый класс их не раскрывает.
+     */
+    private Capabilities capabilities;
     private VncRecordingMode recordingMode;
     private long implicitlyWait = 100;
+    private final WebDriverMetrics metrics = new WebDriverMetrics();
+    private RemoteWebDriver driver;
+    private InstrumentedCommandExecutor commandExecutor;
+    private int maxSessions = 0;
+    private double cpus = 0;
+    private long memoryLimit = 0;
+    private WebDriverSessionPool sessionPool;
 
     /**
      * Создаёт контейнер, подключенный к заданному приложению и с заданными характеристиками.
@@ -155,11 +179,120 @@ public class JavisterWebDriverContainer extends BrowserWebDriverContainer<Javist
      * @param millisec величина имплицитного ожидания у создаваемого для этого контейнера WebDriver.
      * @return возвращает this для fluent API.
      */
-    public JavisterWebDriverContainer withImplicitlyWait(long millisec) {
+    public synchronized JavisterWebDriverContainer withImplicitlyWait(long millisec) {
         implicitlyWait = millisec;
+        if (driver != null) {
+            applyImplicitlyWait();
+        }
         return this;
     }
 
+    /**
+     * Задаёт максимальное количество одновременных сессий WebDriver в контейнере (см. {@link #getSessionPool()}).
+     *
+     * @param maxSessions максимальное количество сессий.
+     * @return возвращает this для fluent API.
+     */
+    public JavisterWebDriverContainer withMaxSessions(int maxSessions) {
+        if (maxSessions <= 0) {
+            throw new IllegalArgumentException("Количество сессий должно быть положительным: " + maxSessions);
+        }
+        this.maxSessions = maxSessions;
+        return this;
+    }
+
+    /**
+     * Ограничивает количество процессорного времени, доступного контейнеру (аналог {@code docker run --cpus}).
+     * <p>Если количество сессий не задано явно, на каждый процессор приходится одна сессия.
+     *
+     * @param cpus количество процессоров.
+     * @return возвращает this для fluent API.
+     */
+    public JavisterWebDriverContainer withCpus(double cpus) {
+        if (cpus <= 0) {
+            throw new IllegalArgumentException("Количество процессоров должно быть положительным: " + cpus);
+        }
+        this.cpus = cpus;
+        return withCreateContainerCmdModifier(cmd -> cmd.getHostConfig().withNanoCPUs(Math.round(cpus * 1_000_000_000L)));
+    }
+
+    /**
+     * Ограничивает память, доступную контейнеру (аналог {@code docker run --memory}).
+     * <p>Если количество сессий не задано явно, на каждую сессию отводится 512 МБ.
+     *
+     * @param bytes максимальный объём памяти в байтах.
+     * @return возвращает this для fluent API.
+     */
+    public JavisterWebDriverContainer withMemoryLimit(long bytes) {
+        if (bytes <= 0) {
+            throw new IllegalArgumentException("Ограничение памяти должно быть положительным: " + bytes);
+        }
+        this.memoryLimit = bytes;
+        return withCreateContainerCmdModifier(cmd -> cmd.getHostConfig().withMemory(bytes).withMemorySwap(bytes));
+    }
+
+    /**
+     * Получение максимального количества одновременных сессий WebDriver в контейнере: заданного явно
+     * или определённого по ограничениям процессоров и памяти контейнера.
+     *
+     * @return максимальное количество сессий.
+     */
+    public int getMaxSessions() {
+        if (maxSessions > 0) {
+            return maxSessions;
+        }
+        int result = Integer.MAX_VALUE;
+        if (cpus > 0) {
+            result = Math.min(result, (int) Math.floor(cpus));
+        }
+        if (memoryLimit > 0) {
+            result = Math.min(result, (int) Math.min(Integer.MAX_VALUE, memoryLimit / SESSION_MEMORY));
+        }
+        return result == Integer.MAX_VALUE ? 1 : Math.max(result, 1);
+    }
+
+    /**
+     * Получение пула сессий WebDriver для параллельной работы нескольких тестов с одним контейнером.
+     * <p>Сессии пула независимы от {@link #getWebDriver()}, но сессия {@link #getWebDriver()} учитывается в
+     * ограничении количества сессий, поэтому при единственной сессии пул после {@link #getWebDriver()} недоступен.
+     * Команды сессий пула замеряются отдельно от {@link #getMetrics()}.
+     * При записи видео в многосессионном режиме в запись попадают окна всех сессий.
+     *
+     * @return пул сессий запущенного контейнера.
+     * @throws IllegalTestConfigurationException если единственная сессия контейнера уже занята {@link #getWebDriver()}.
+     */
+    public synchronized WebDriverSessionPool getSessionPool() {
+        if (sessionPool == null) {
+            int sessions = getMaxSessions();
+            if (driver != null && sessions <= 1) {
+                throw new IllegalTestConfigurationException("The only WebDriver session of the container is taken by "
+                        + "getWebDriver(), set withMaxSessions(n) with n > 1 to use the session pool");
+            }
+            sessionPool = new WebDriverSessionPool(getSeleniumAddress(), getCapabilities(), implicitlyWait, sessions);
+            if (driver != null) {
+                // Место заведомо свободно: пул только что создан
+                reserveDefaultSession(sessionPool);
+            }
+        }
+        return sessionPool;
+    }
+
+    /**
+     * Получение статистики длительности выполнения команд WebDriver {@link #getWebDriver()}. Команды сессий пула
+     * замеряются отдельно (см. {@link WebDriverSessionPool#getMetrics(RemoteWebDriver)}).
+     *
+     * @return статистика команд WebDriver.
+     */
+    public WebDriverMetrics getMetrics() {
+        return metrics;
+    }
+
+    @Override
+    public JavisterWebDriverContainer withCapabilities(Capabilities capabilities) {
+        this.capabilities = capabilities;
+        return super.withCapabilities(capabilities);
+    }
+
     @Override
     public JavisterWebDriverContainer withDesiredCapabilities(DesiredCapabilities desiredCapabilities) {
         this.desiredCapabilities = desiredCapabilities;
@@ -186,6 +319,14 @@ public class JavisterWebDriverContainer extends BrowserWebDriverContainer<Javist
         if (USE_LOCAL_X_SERVER) {
             withLocalXServer();
         }
+        int sessions = getMaxSessions();
+        if (sessions > 1) {
+            // Selenium 3 и Selenium 4 образы настраиваются разными переменными
+            withEnv("NODE_MAX_SESSION", Integer.toString(sessions));
+            withEnv("NODE_MAX_INSTANCES", Integer.toString(sessions));
+            withEnv("SE_NODE_MAX_SESSIONS", Integer.toString(sessions));
+            withEnv("SE_NODE_OVERRIDE_MAX_SESSIONS", "true");
+        }
         if (appContainer != null) {
             this.withNetwork(appContainer.getNetwork());
             this.withRecordingMode(recordingMode, appContainer.getTestPath());
@@ -212,15 +353,107 @@ public class JavisterWebDriverContainer extends BrowserWebDriverContainer<Javist
         return Objects.hash(super.hashCode(), appContainer, desiredCapabilities, recordingMode);
     }
 
+    /**
+     * Получение WebDriver, подключенного к браузеру контейнера.
+     * <p>WebDriver создаётся один раз на время работы контейнера, все его команды замеряются
+     * (см. {@link #getMetrics()}). Если создан пул сессий, WebDriver занимает одно из мест пула; ожидание
+     * свободного места выполняется без блокировки контейнера.
+     *
+     * @return WebDriver контейнера.
+     */
     @Override
     public RemoteWebDriver getWebDriver() {
-        RemoteWebDriver driver = super.getWebDriver();
-        if (driver != null) {
-            driver.manage().timeouts().implicitlyWait(implicitlyWait, TimeUnit.MILLISECONDS);
+        while (true) {
+            WebDriverSessionPool pool;
+            synchronized (this) {
+                if (driver != null) {
+                    return driver;
+                }
+                pool = sessionPool;
+            }
+            if (pool != null) {
+                reserveDefaultSession(pool);
+            }
+            synchronized (this) {
+                if (driver == null && sessionPool == pool) {
+                    createWebDriver();
+                    return driver;
+                }
+            }
+            // Пока ожидали места, WebDriver создан другим потоком или пул пересоздан
+            if (pool != null) {
+                pool.releaseDefaultSession();
+            }
+        }
+    }
+
+    private void createWebDriver() {
+        try {
+            Capabilities capabilities = getCapabilities();
+            commandExecutor = new InstrumentedCommandExecutor(getSeleniumAddress(), metrics);
+            driver = Unreliables.retryUntilSuccess(DRIVER_START_TIMEOUT, TimeUnit.SECONDS,
+                    () -> new RemoteWebDriver(commandExecutor, capabilities));
+        } catch (RuntimeException e) {
+            commandExecutor = null;
+            if (sessionPool != null) {
+                sessionPool.releaseDefaultSession();
+            }
+            throw e;
+        }
+        applyImplicitlyWait();
+    }
+
+    private static void reserveDefaultSession(WebDriverSessionPool pool) {
+        try {
+            pool.reserveDefaultSession(Duration.ofSeconds(DRIVER_START_TIMEOUT));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TestRunException("Interrupted while waiting for a free WebDriver session", e);
         }
+    }
+
+    /**
+     * Получение WebDriver контейнера, только если он уже создан вызовом {@link #getWebDriver()}.
+     *
+     * @return WebDriver контейнера или null, если сессия не открывалась.
+     */
+    @Nullable
+    public synchronized RemoteWebDriver getWebDriverIfCreated() {
         return driver;
     }
 
+    @Override
+    public void stop() {
+        synchronized (this) {
+            if (sessionPool != null) {
+                sessionPool.close();
+                sessionPool = null;
+            }
+            if (driver != null) {
+                try {
+                    driver.quit();
+                } catch (RuntimeException e) {
+                    LOGGER.debug("Can't quit the WebDriver session", e);
+                }
+                driver = null;
+                commandExecutor = null;
+            }
+        }
+        super.stop();
+    }
+
+    private Capabilities getCapabilities() {
+        if (capabilities != null) {
+            return capabilities;
+        }
+        return desiredCapabilities != null ? desiredCapabilities : DesiredCapabilities.chrome();
+    }
+
+    private void applyImplicitlyWait() {
+        driver.manage().timeouts().implicitlyWait(implicitlyWait, TimeUnit.MILLISECONDS);
+        commandExecutor.setImplicitlyWait(implicitlyWait);
+    }
+
     private static String getTimezone() {
         return ZonedDateTime.now().getZone().getId();
     }
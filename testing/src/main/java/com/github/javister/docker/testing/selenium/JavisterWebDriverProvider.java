@@ -78,6 +78,22 @@ public @interface JavisterWebDriverProvider {
      */
     boolean attachVideo() default true;
 
+    /**
+     * Флаг, обозначающий необходимость добавления статистики длительности выполнения команд WebDriver к отчёту Allure.
+     *
+     * @return флаг, обозначающий необходимость добавления статистики команд WebDriver к отчёту Allure.
+     */
+    boolean attachMetrics() default true;
+
+    /**
+     * Режим сбора диагностической информации браузера (снимка экрана, исходного кода страницы и логов консоли
+     * браузера) для отчёта Allure. В отличие от видеозаписи диагностика почти ничего не стоит, так что для
+     * большинства тестов видеозапись можно отключить.
+     *
+     * @return режим сбора диагностической информации браузера.
+     */
+    DiagnosticsMode diagnostics() default DiagnosticsMode.ON_FAILURE;
+
     /**
      * Интерфейс конфигуратора для настройки контейнеров WebDriver.
      */
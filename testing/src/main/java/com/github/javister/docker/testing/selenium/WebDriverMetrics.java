@@ -0,0 +1,204 @@
+package com.github.javister.docker.testing.selenium;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Статистика длительности выполнения команд WebDriver.
+ *
+ * <p>Для каждой команды (findElement, clickElement, get, executeScript и т.д.) накапливаются количество вызовов,
+ * ошибок, суммарное и максимальное время, а также гистограмма длительностей. Отдельно считается количество
+ * поисков элементов, завершившихся по истечению имплицитного ожидания.
+ */
+public class WebDriverMetrics {
+    /**
+     * Верхние границы корзин гистограммы в миллисекундах. Последняя корзина не ограничена.
+     */
+    private static final long[] BUCKET_BOUNDS = {5, 10, 25, 50, 100, 250, 500, 1000, 2500, 5000, 10000};
+
+    private final Map<String, CommandStats> commands = new ConcurrentHashMap<>();
+    private final AtomicLong implicitWaitTimeouts = new AtomicLong();
+
+    /**
+     * Регистрация выполнения команды.
+     *
+     * @param command имя команды.
+     * @param nanos   длительность выполнения в наносекундах.
+     * @param failed  завершилась ли команда ошибкой.
+     */
+    public void record(@NotNull String command, long nanos, boolean failed) {
+        commands.computeIfAbsent(command, CommandStats::new).record(nanos, failed);
+    }
+
+    /**
+     * Регистрация поиска элемента, завершившегося по истечению имплицитного ожидания.
+     */
+    public void recordImplicitWaitTimeout() {
+        implicitWaitTimeouts.incrementAndGet();
+    }
+
+    /**
+     * @return количество поисков элементов, завершившихся по истечению имплицитного ожидания.
+     */
+    public long getImplicitWaitTimeouts() {
+        return implicitWaitTimeouts.get();
+    }
+
+    /**
+     * Получение статистики команд.
+     *
+     * @return статистика команд, упорядоченная по убыванию суммарного времени выполнения.
+     */
+    @NotNull
+    public List<CommandStats> getCommands() {
+        List<CommandStats> result = new ArrayList<>();
+        for (CommandStats stats : commands.values()) {
+            result.add(stats.copy());
+        }
+        result.sort(Comparator.comparingLong(CommandStats::getTotalNanos).reversed());
+        return result;
+    }
+
+    /**
+     * Сброс накопленной статистики.
+     */
+    public void reset() {
+        commands.clear();
+        implicitWaitTimeouts.set(0);
+    }
+
+    /**
+     * Формирование текстового отчёта.
+     *
+     * @return текстовый отчёт.
+     */
+    @NotNull
+    public String formatReport() {
+        StringBuilder report = new StringBuilder();
+        report.append(String.format(Locale.ROOT, "%-24s %7s %7s %10s %9s %9s %9s%n",
+                "Command", "Count", "Errors", "Total, ms", "Avg, ms", "P95, ms", "Max, ms"));
+        for (CommandStats stats : getCommands()) {
+            report.append(String.format(Locale.ROOT, "%-24s %7d %7d %10d %9.1f %9s %9d%n",
+                    stats.getCommand(),
+                    stats.getCount(),
+                    stats.getErrors(),
+                    TimeUnit.NANOSECONDS.toMillis(stats.getTotalNanos()),
+                    stats.getAverageNanos() / 1_000_000.0,
+                    formatBound(stats.getPercentileBound(0.95)),
+                    TimeUnit.NANOSECONDS.toMillis(stats.getMaxNanos())));
+        }
+        report.append("Implicit wait timeouts: ").append(getImplicitWaitTimeouts()).append(System.lineSeparator());
+        return report.toString();
+    }
+
+    private static String formatBound(long bound) {
+        return bound == Long.MAX_VALUE ? ">" + BUCKET_BOUNDS[BUCKET_BOUNDS.length - 1] : "<=" + bound;
+    }
+
+    @Override
+    public String toString() {
+        return formatReport();
+    }
+
+    /**
+     * Статистика выполнения одной команды WebDriver.
+     */
+    public static class CommandStats {
+        private final String command;
+        private final long[] buckets = new long[BUCKET_BOUNDS.length + 1];
+        private long count;
+        private long errors;
+        private long totalNanos;
+        private long maxNanos;
+
+        CommandStats(String command) {
+            this.command = command;
+        }
+
+        synchronized void record(long nanos, boolean failed) {
+            count++;
+            if (failed) {
+                errors++;
+            }
+            totalNanos += nanos;
+            maxNanos = Math.max(maxNanos, nanos);
+            long millis = TimeUnit.NANOSECONDS.toMillis(nanos);
+            int bucket = 0;
+            while (bucket < BUCKET_BOUNDS.length && millis > BUCKET_BOUNDS[bucket]) {
+                bucket++;
+            }
+            buckets[bucket]++;
+        }
+
+        synchronized CommandStats copy() {
+            CommandStats copy = new CommandStats(command);
+            System.arraycopy(buckets, 0, copy.buckets, 0, buckets.length);
+            copy.count = count;
+            copy.errors = errors;
+            copy.totalNanos = totalNanos;
+            copy.maxNanos = maxNanos;
+            return copy;
+        }
+
+        @NotNull
+        public String getCommand() {
+            return command;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getErrors() {
+            return errors;
+        }
+
+        public long getTotalNanos() {
+            return totalNanos;
+        }
+
+        public long getMaxNanos() {
+            return maxNanos;
+        }
+
+        public double getAverageNanos() {
+            return count > 0 ? (double) totalNanos / count : 0;
+        }
+
+        /**
+         * Оценка перцентиля длительности по гистограмме.
+         *
+         * @param percentile перцентиль от 0 до 1.
+         * @return верхняя граница корзины гистограммы в миллисекундах, в которую попадает перцентиль,
+         * или {@link Long#MAX_VALUE} для последней, неограниченной, корзины.
+         */
+        public long getPercentileBound(double percentile) {
+            long threshold = (long) Math.ceil(count * percentile);
+            long accumulated = 0;
+            for (int i = 0; i < BUCKET_BOUNDS.length; i++) {
+                accumulated += buckets[i];
+                if (accumulated >= threshold) {
+                    return BUCKET_BOUNDS[i];
+                }
+            }
+            return Long.MAX_VALUE;
+        }
+
+        /**
+         * @return количество вызовов в корзинах гистограммы с границами {@code 5, 10, 25, 50, 100, 250, 500, 1000,
+         * 2500, 5000, 10000} мс и последней неограниченной корзиной.
+         */
+        @NotNull
+        public long[] getHistogram() {
+            return buckets.clone();
+        }
+    }
+}
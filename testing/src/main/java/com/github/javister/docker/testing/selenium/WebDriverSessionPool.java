@@ -0,0 +1,233 @@
+package com.github.javister.docker.testing.selenium;
+
+import com.github.javister.docker.testing.TestRunException;
+import org.jetbrains.annotations.NotNull;
+import org.openqa.selenium.Capabilities;
+import org.openqa.selenium.remote.RemoteWebDriver;
+import org.rnorth.ducttape.unreliables.Unreliables;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.URL;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Пул сессий WebDriver одного контейнера с браузером.
+ *
+ * <p>Позволяет параллельным тестам работать с одним контейнером: каждый тест получает собственную сессию
+ * (собственное окно браузера), а количество одновременных сессий ограничено
+ * {@link JavisterWebDriverContainer#getMaxSessions()} с учётом сессии {@link JavisterWebDriverContainer#getWebDriver()}.
+ * Каждая сессия привязывается к тесту-владельцу, что позволяет закрыть все сессии упавшего теста и сопоставить время
+ * работы сессии с видеозаписью контейнера. Команды каждой сессии замеряются отдельно (см. {@link #getMetrics(RemoteWebDriver)}),
+ * так что статистика теста не смешивается с командами параллельных тестов.
+ */
+public class WebDriverSessionPool implements AutoCloseable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(WebDriverSessionPool.class);
+    private static final int SESSION_START_TIMEOUT = 30;
+
+    private final URL seleniumAddress;
+    private final Capabilities capabilities;
+    private final long implicitlyWait;
+    private final Semaphore permits;
+    private final Map<RemoteWebDriver, Session> sessions = new IdentityHashMap<>();
+    private volatile boolean closed = false;
+
+    WebDriverSessionPool(
+            @NotNull URL seleniumAddress,
+            @NotNull Capabilities capabilities,
+            long implicitlyWait,
+            int maxSessions) {
+        this.seleniumAddress = seleniumAddress;
+        this.capabilities = capabilities;
+        this.implicitlyWait = implicitlyWait;
+        this.permits = new Semaphore(maxSessions, true);
+    }
+
+    /**
+     * Получение новой сессии WebDriver. Если все сессии заняты - ожидает освобождения одной из них.
+     *
+     * @param owner   имя теста-владельца сессии.
+     * @param timeout максимальное время ожидания свободной сессии.
+     * @return WebDriver новой сессии.
+     * @throws InterruptedException если ожидание было прервано.
+     * @throws TestRunException     если свободная сессия не появилась за отведённое время или пул закрыт.
+     */
+    @NotNull
+    public RemoteWebDriver acquire(@NotNull String owner, @NotNull Duration timeout) throws InterruptedException {
+        if (closed) {
+            throw new TestRunException("WebDriver session pool is closed");
+        }
+        if (!permits.tryAcquire(timeout.toMillis(), TimeUnit.MILLISECONDS)) {
+            throw new TestRunException("No free WebDriver session for " + owner + " within " + timeout);
+        }
+        WebDriverMetrics metrics = new WebDriverMetrics();
+        InstrumentedCommandExecutor executor = new InstrumentedCommandExecutor(seleniumAddress, metrics);
+        RemoteWebDriver driver;
+        try {
+            driver = Unreliables.retryUntilSuccess(SESSION_START_TIMEOUT, TimeUnit.SECONDS,
+                    () -> new RemoteWebDriver(executor, capabilities));
+        } catch (RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+        try {
+            driver.manage().timeouts().implicitlyWait(implicitlyWait, TimeUnit.MILLISECONDS);
+        } catch (RuntimeException e) {
+            // Сессия уже открыта на узле Selenium: закрываем её, иначе место будет занято при свободном разрешении
+            try {
+                driver.quit();
+            } catch (RuntimeException quitError) {
+                e.addSuppressed(quitError);
+            } finally {
+                permits.release();
+            }
+            throw e;
+        }
+        executor.setImplicitlyWait(implicitlyWait);
+        synchronized (sessions) {
+            sessions.put(driver, new Session(owner, Instant.now(), metrics));
+        }
+        LOGGER.debug("WebDriver session {} acquired by {}", driver.getSessionId(), owner);
+        return driver;
+    }
+
+    /**
+     * Закрытие сессии WebDriver и возврат её в пул.
+     *
+     * @param driver WebDriver сессии, полученный методом {@link #acquire(String, Duration)}.
+     */
+    public void release(@NotNull RemoteWebDriver driver) {
+        Session session;
+        synchronized (sessions) {
+            session = sessions.remove(driver);
+        }
+        if (session == null) {
+            return;
+        }
+        try {
+            driver.quit();
+        } catch (RuntimeException e) {
+            LOGGER.debug("Can't quit the WebDriver session of {}", session.owner, e);
+        } finally {
+            permits.release();
+        }
+        LOGGER.debug("WebDriver session of {} released after {}", session.owner, Duration.between(session.start, Instant.now()));
+    }
+
+    /**
+     * Закрытие всех сессий теста. Используется для очистки после упавшего или прерванного теста.
+     *
+     * @param owner имя теста-владельца сессий.
+     */
+    public void releaseAll(@NotNull String owner) {
+        for (RemoteWebDriver driver : getSessions(owner)) {
+            release(driver);
+        }
+    }
+
+    /**
+     * Получение открытых сессий теста.
+     *
+     * @param owner имя теста-владельца сессий.
+     * @return WebDriver открытых сессий теста.
+     */
+    @NotNull
+    public List<RemoteWebDriver> getSessions(@NotNull String owner) {
+        List<RemoteWebDriver> result = new ArrayList<>();
+        synchronized (sessions) {
+            sessions.forEach((driver, session) -> {
+                if (session.owner.equals(owner)) {
+                    result.add(driver);
+                }
+            });
+        }
+        return result;
+    }
+
+    /**
+     * Получение времени открытия сессии, например для поиска фрагмента видеозаписи контейнера.
+     *
+     * @param driver WebDriver сессии.
+     * @return время открытия сессии или null, если сессия уже закрыта или не принадлежит пулу.
+     */
+    public Instant getSessionStart(@NotNull RemoteWebDriver driver) {
+        synchronized (sessions) {
+            Session session = sessions.get(driver);
+            return session != null ? session.start : null;
+        }
+    }
+
+    /**
+     * Получение статистики длительности выполнения команд сессии.
+     *
+     * @param driver WebDriver сессии.
+     * @return статистика команд сессии или null, если сессия уже закрыта или не принадлежит пулу.
+     */
+    public WebDriverMetrics getMetrics(@NotNull RemoteWebDriver driver) {
+        synchronized (sessions) {
+            Session session = sessions.get(driver);
+            return session != null ? session.metrics : null;
+        }
+    }
+
+    /**
+     * Занимает место сессии {@link JavisterWebDriverContainer#getWebDriver()}, которая тоже занимает слот узла Selenium.
+     *
+     * @param timeout максимальное время ожидания свободного места.
+     * @throws InterruptedException если ожидание было прервано.
+     * @throws TestRunException     если свободное место не появилось за отведённое время.
+     */
+    void reserveDefaultSession(@NotNull Duration timeout) throws InterruptedException {
+        if (!permits.tryAcquire(timeout.toMillis(), TimeUnit.MILLISECONDS)) {
+            throw new TestRunException("No free WebDriver session for the container WebDriver within " + timeout);
+        }
+    }
+
+    /**
+     * Освобождает место сессии {@link JavisterWebDriverContainer#getWebDriver()}.
+     */
+    void releaseDefaultSession() {
+        permits.release();
+    }
+
+    /**
+     * @return количество открытых сессий.
+     */
+    public int getActiveSessions() {
+        synchronized (sessions) {
+            return sessions.size();
+        }
+    }
+
+    /**
+     * Закрытие всех сессий пула.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        List<RemoteWebDriver> drivers;
+        synchronized (sessions) {
+            drivers = new ArrayList<>(sessions.keySet());
+        }
+        drivers.forEach(this::release);
+    }
+
+    private static class Session {
+        private final String owner;
+        private final Instant start;
+        private final WebDriverMetrics metrics;
+
+        Session(String owner, Instant start, WebDriverMetrics metrics) {
+            this.owner = owner;
+            this.start = start;
+            this.metrics = metrics;
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package com.github.javister.docker.testing.selenium.support;
+
+import com.github.javister.docker.testing.AsyncSupport;
+import io.qameta.allure.Allure;
+import io.qameta.allure.AllureLifecycle;
+import org.jetbrains.annotations.NotNull;
+import org.openqa.selenium.OutputType;
+import org.openqa.selenium.TakesScreenshot;
+import org.openqa.selenium.logging.LogEntry;
+import org.openqa.selenium.logging.LogType;
+import org.openqa.selenium.remote.RemoteWebDriver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Диагностическая информация браузера: снимок экрана, исходный код страницы и логи консоли браузера.
+ *
+ * <p>Информация снимается с браузера синхронно, пока сессия WebDriver ещё открыта, а сжатие снимка экрана и
+ * запись вложений Allure выполняются асинхронно и не задерживают завершение теста. Незавершённые записи
+ * дожидаются при остановке JVM.
+ */
+class BrowserDiagnostics {
+    private static final Logger LOGGER = LoggerFactory.getLogger(BrowserDiagnostics.class);
+    private static final float JPEG_QUALITY = 0.8f;
+    private static final long SHUTDOWN_WAIT_SECONDS = 30;
+
+    private static final List<CompletableFuture<?>> PENDING = new ArrayList<>();
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(BrowserDiagnostics::awaitPending, "javister-diagnostics-flush"));
+    }
+
+    private final byte[] screenshot;
+    private final String pageSource;
+    private final String browserLog;
+
+    private BrowserDiagnostics(byte[] screenshot, String pageSource, String browserLog) {
+        this.screenshot = screenshot;
+        this.pageSource = pageSource;
+        this.browserLog = browserLog;
+    }
+
+    /**
+     * Снятие диагностической информации с браузера. Недоступная информация (например логи консоли браузера,
+     * которые поддерживаются не всеми драйверами) пропускается.
+     *
+     * @param driver WebDriver открытой сессии.
+     * @return диагностическая информация.
+     */
+    @NotNull
+    static BrowserDiagnostics capture(@NotNull RemoteWebDriver driver) {
+        byte[] screenshot = null;
+        String pageSource = null;
+        String browserLog = null;
+        try {
+            screenshot = ((TakesScreenshot) driver).getScreenshotAs(OutputType.BYTES);
+        } catch (RuntimeException e) {
+            LOGGER.debug("Can't take a browser screenshot", e);
+        }
+        try {
+            pageSource = driver.getPageSource();
+        } catch (RuntimeException e) {
+            LOGGER.debug("Can't get the page source", e);
+        }
+        try {
+            StringBuilder log = new StringBuilder();
+            for (LogEntry entry : driver.manage().logs().get(LogType.BROWSER)) {
+                log.append(entry).append(System.lineSeparator());
+            }
+            browserLog = log.toString();
+        } catch (RuntimeException e) {
+            LOGGER.debug("Can't get the browser console log", e);
+        }
+        return new BrowserDiagnostics(screenshot, pageSource, browserLog);
+    }
+
+    /**
+     * Асинхронная запись диагностической информации во вложения Allure текущего теста.
+     * <p>Вложения регистрируются в текущем тесте синхронно, асинхронно пишется только их содержимое.
+     */
+    void attachAsync() {
+        AllureLifecycle lifecycle = Allure.getLifecycle();
+        if (screenshot != null) {
+            if (ImageIO.getImageWritersByFormatName("jpeg").hasNext()) {
+                String source = lifecycle.prepareAttachment("Screenshot", "image/jpeg", ".jpg");
+                write(lifecycle, source, () -> compressOrOriginal(screenshot));
+            } else {
+                String source = lifecycle.prepareAttachment("Screenshot", "image/png", ".png");
+                write(lifecycle, source, () -> screenshot);
+            }
+        }
+        if (pageSource != null) {
+            String source = lifecycle.prepareAttachment("Page source", "text/html", ".html");
+            write(lifecycle, source, () -> pageSource.getBytes(StandardCharsets.UTF_8));
+        }
+        if (browserLog != null && !browserLog.isEmpty()) {
+            String source = lifecycle.prepareAttachment("Browser console log", "text/plain", ".txt");
+            write(lifecycle, source, () -> browserLog.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    private static void write(AllureLifecycle lifecycle, String source, ContentSupplier content) {
+        CompletableFuture<Void> future = AsyncSupport.supplyAsync(() -> {
+            lifecycle.writeAttachment(source, new ByteArrayInputStream(content.get()));
+            return null;
+        });
+        synchronized (PENDING) {
+            PENDING.removeIf(CompletableFuture::isDone);
+            PENDING.add(future);
+        }
+    }
+
+    /**
+     * Перекодирование снимка экрана в JPEG. Вложение уже зарегистрировано в отчёте, поэтому при ошибке
+     * перекодирования пишется исходный PNG: просмотрщики определяют формат изображения по содержимому.
+     */
+    private static byte[] compressOrOriginal(byte[] png) {
+        try {
+            return compress(png);
+        } catch (IOException | RuntimeException | OutOfMemoryError e) {
+            LOGGER.debug("Can't convert the browser screenshot to JPEG, attaching it as is", e);
+            return png;
+        }
+    }
+
+    /**
+     * Перекодирование снимка экрана из PNG в JPEG, который для снимков страниц в разы меньше.
+     */
+    private static byte[] compress(byte[] png) throws IOException {
+        BufferedImage image = ImageIO.read(new ByteArrayInputStream(png));
+        if (image == null) {
+            throw new IOException("Unsupported screenshot format");
+        }
+        // JPEG не поддерживает прозрачность
+        BufferedImage rgb = new BufferedImage(image.getWidth(), image.getHeight(), BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = rgb.createGraphics();
+        graphics.drawImage(image, 0, 0, null);
+        graphics.dispose();
+
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ByteArrayOutputStream result = new ByteArrayOutputStream(png.length / 4);
+        try (ImageOutputStream out = ImageIO.createImageOutputStream(result)) {
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(JPEG_QUALITY);
+            writer.setOutput(out);
+            writer.write(null, new IIOImage(rgb, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return result.toByteArray();
+    }
+
+    private static void awaitPending() {
+        List<CompletableFuture<?>> pending;
+        synchronized (PENDING) {
+            pending = new ArrayList<>(PENDING);
+        }
+        try {
+            CompletableFuture.allOf(pending.toArray(new CompletableFuture<?>[0])).get(SHUTDOWN_WAIT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException e) {
+            LOGGER.warn("Some of the browser diagnostics were not attached to the report", e);
+        }
+    }
+
+    private interface ContentSupplier {
+        byte[] get() throws IOException;
+    }
+}
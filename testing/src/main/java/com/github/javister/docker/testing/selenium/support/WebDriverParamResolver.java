@@ -1,6 +1,8 @@
 package com.github.javister.docker.testing.selenium.support;
 
+import com.github.javister.docker.testing.AllureSupport;
 import com.github.javister.docker.testing.TestRunException;
+import com.github.javister.docker.testing.selenium.DiagnosticsMode;
 import com.github.javister.docker.testing.selenium.JavisterWebDriverConfigurator;
 import com.github.javister.docker.testing.selenium.JavisterWebDriverContainer;
 import com.github.javister.docker.testing.selenium.JavisterWebDriverContainer.Browser;
@@ -15,6 +17,8 @@ import org.junit.jupiter.api.extension.ReflectiveInvocationContext;
 import org.junit.platform.commons.support.AnnotationSupport;
 import org.junit.platform.commons.support.HierarchyTraversalMode;
 import org.openqa.selenium.remote.RemoteWebDriver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.testcontainers.lifecycle.TestDescription;
 
 import java.io.Closeable;
@@ -35,6 +39,7 @@ public class WebDriverParamResolver implements
         ParameterResolver,
         InvocationInterceptor,
         Closeable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(WebDriverParamResolver.class);
     private static final AtomicInteger counter = new AtomicInteger(1);
     private ExtensionContext context;
     private final Browser browserType;
@@ -86,9 +91,11 @@ public class WebDriverParamResolver implements
             try {
                 if (context != null) {
                     TestDescription description = getDescription();
+                    attachDiagnostics();
                     container.afterTest(description, context.getExecutionException());
 
                     attachVideo(description);
+                    attachMetrics();
                 }
             } finally {
                 container.close();
@@ -103,7 +110,7 @@ public class WebDriverParamResolver implements
                 .map(domain -> domain.getCodeSource().getLocation())
                 .orElse(null);
 
-        if (detectAllure() && workDir != null && provider != null && provider.attachVideo()) {
+        if (AllureSupport.isAvailable() && workDir != null && provider != null && provider.attachVideo()) {
             try {
                 Files.list(Paths.get(workDir.toURI()).resolve(".."))
                         .filter(file -> file.toString().contains(description.getFilesystemFriendlyName()))
@@ -120,12 +127,27 @@ public class WebDriverParamResolver implements
         }
     }
 
-    private boolean detectAllure() {
+    public void attachDiagnostics() {
+        DiagnosticsMode mode = provider != null ? provider.diagnostics() : DiagnosticsMode.NONE;
+        boolean failed = context.getExecutionException().isPresent();
+        if (!AllureSupport.isAvailable() || mode == DiagnosticsMode.NONE || (mode == DiagnosticsMode.ON_FAILURE && !failed)) {
+            return;
+        }
+        // Новая сессия ради снимка пустой страницы не нужна
+        RemoteWebDriver driver = container.getWebDriverIfCreated();
+        if (driver == null) {
+            return;
+        }
         try {
-            Class<?> allureClass = this.getClass().getClassLoader().loadClass("io.qameta.allure.Allure");
-            return allureClass != null;
-        } catch (ClassNotFoundException e) {
-            return false;
+            BrowserDiagnostics.capture(driver).attachAsync();
+        } catch (RuntimeException e) {
+            LOGGER.warn("Can't attach the browser diagnostics to the report", e);
+        }
+    }
+
+    public void attachMetrics() {
+        if (AllureSupport.isAvailable() && provider != null && provider.attachMetrics()) {
+            Allure.addAttachment("WebDriver commands", "text/plain", container.getMetrics().formatReport(), ".txt");
         }
     }
 
@@ -0,0 +1,234 @@
+package com.github.javister.docker.testing.stand;
+
+import com.github.dockerjava.api.exception.NotFoundException;
+import com.github.dockerjava.api.exception.NotModifiedException;
+import com.github.javister.docker.testing.AsyncSupport;
+import com.github.javister.docker.testing.IllegalTestConfigurationException;
+import com.github.javister.docker.testing.TestRunException;
+import com.github.javister.docker.testing.base.JavisterBaseContainer;
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Function;
+
+/**
+ * Стенд - набор связанных зависимостями контейнеров.
+ *
+ * <p>В стенд входят переданные контейнеры и все их внутренние и внешние зависимости
+ * (см. {@link JavisterBaseContainer#getInternalDependencies()} и {@link JavisterBaseContainer#getExternalDependencies()}).
+ * Стенд останавливается уровнями: сначала контейнеры, от которых никто не зависит, затем их зависимости и т.д.
+ * Контейнеры одного уровня друг от друга не зависят и останавливаются параллельно.
+ */
+public class ContainerStand {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ContainerStand.class);
+
+    /**
+     * Запас времени на остановку контейнера сверх таймаутов завершения процессов {@code my_init}.
+     */
+    private static final int STOP_TIMEOUT_MARGIN = 5;
+    private static final int DEFAULT_KILL_TIMEOUT = 5;
+
+    /**
+     * Режим остановки контейнеров.
+     */
+    public enum StopMode {
+        /**
+         * Корректная остановка: {@code my_init} получает SIGTERM, останавливает сервисы runit и дожидается завершения
+         * процессов в пределах {@code KILL_PROCESS_TIMEOUT} и {@code KILL_ALL_PROCESSES_TIMEOUT}.
+         */
+        GRACEFUL,
+        /**
+         * Немедленное уничтожение контейнеров без корректной остановки сервисов. Подходит, когда тест уже успешно
+         * завершён, а логи контейнеров сброшены (например при {@link JavisterBaseContainer#withLogFlush(int, int)}).
+         */
+        FAST_KILL
+    }
+
+    private final List<List<JavisterBaseContainer<?>>> stopLevels;
+
+    /**
+     * Создаёт стенд.
+     *
+     * @param containers контейнеры стенда. Их зависимости добавляются в стенд автоматически.
+     * @throws IllegalTestConfigurationException если зависимости контейнеров образуют цикл.
+     */
+    public ContainerStand(@NotNull Collection<? extends JavisterBaseContainer<?>> containers) {
+        this.stopLevels = stopLevels(containers, ContainerStand::dependencies);
+    }
+
+    /**
+     * Создаёт стенд.
+     *
+     * @param containers контейнеры стенда. Их зависимости добавляются в стенд автоматически.
+     * @throws IllegalTestConfigurationException если зависимости контейнеров образуют цикл.
+     */
+    public ContainerStand(@NotNull JavisterBaseContainer<?>... containers) {
+        this(Arrays.asList(containers));
+    }
+
+    /**
+     * Получение уровней остановки стенда.
+     *
+     * @return списки контейнеров в порядке их остановки. Контейнеры одного уровня не зависят друг от друга.
+     */
+    @NotNull
+    public List<List<JavisterBaseContainer<?>>> getStopLevels() {
+        return stopLevels;
+    }
+
+    /**
+     * Корректная остановка всех контейнеров стенда.
+     *
+     * @throws TestRunException если какой-либо из контейнеров не удалось остановить. Остальные контейнеры при этом
+     *                          всё равно останавливаются.
+     */
+    public void stopAll() {
+        stopAll(StopMode.GRACEFUL);
+    }
+
+    /**
+     * Остановка всех контейнеров стенда: зависимые контейнеры останавливаются раньше своих зависимостей,
+     * независимые друг от друга - параллельно. Переиспользуемые контейнеры (см.
+     * {@link JavisterBaseContainer#isReuseActive()}) остаются работать.
+     *
+     * @param mode режим остановки.
+     * @throws TestRunException если какой-либо из контейнеров не удалось остановить. Остальные контейнеры при этом
+     *                          всё равно останавливаются.
+     */
+    public void stopAll(@NotNull StopMode mode) {
+        TestRunException error = null;
+        for (List<JavisterBaseContainer<?>> level : stopLevels) {
+            List<CompletableFuture<Void>> futures = new ArrayList<>(level.size());
+            for (JavisterBaseContainer<?> container : level) {
+                futures.add(AsyncSupport.supplyAsync(() -> {
+                    stop(container, mode);
+                    return null;
+                }));
+            }
+            for (CompletableFuture<Void> future : futures) {
+                try {
+                    future.get();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    futures.forEach(it -> it.cancel(true));
+                    throw new TestRunException("Interrupted while stopping the stand", e);
+                } catch (ExecutionException e) {
+                    if (error == null) {
+                        error = new TestRunException("Can't stop some of the stand containers", e.getCause());
+                    } else {
+                        error.addSuppressed(e.getCause());
+                    }
+                }
+            }
+        }
+        if (error != null) {
+            throw error;
+        }
+    }
+
+    private static void stop(JavisterBaseContainer<?> container, StopMode mode) {
+        String containerId = container.getContainerId();
+        // Testcontainers переиспользует только работающие контейнеры: остановленный контейнер остался бы брошенным
+        if (mode == StopMode.GRACEFUL && containerId != null && !container.isReuseActive() && container.isRunning()) {
+            try {
+                container.getDockerClient().stopContainerCmd(containerId).withTimeout(stopTimeout(container)).exec();
+            } catch (NotModifiedException | NotFoundException e) {
+                LOGGER.debug("Container {} is already stopped", containerId);
+            }
+        }
+        container.stop();
+    }
+
+    private static int stopTimeout(JavisterBaseContainer<?> container) {
+        Map<String, String> env = container.getEnvMap();
+        return timeout(env.get("KILL_PROCESS_TIMEOUT")) + timeout(env.get("KILL_ALL_PROCESSES_TIMEOUT")) + STOP_TIMEOUT_MARGIN;
+    }
+
+    private static int timeout(String value) {
+        try {
+            return value != null ? Integer.parseInt(value.trim()) : DEFAULT_KILL_TIMEOUT;
+        } catch (NumberFormatException e) {
+            return DEFAULT_KILL_TIMEOUT;
+        }
+    }
+
+    private static Collection<JavisterBaseContainer<?>> dependencies(JavisterBaseContainer<?> container) {
+        List<JavisterBaseContainer<?>> result = new ArrayList<>(container.getInternalDependencies());
+        result.addAll(container.getExternalDependencies());
+        return result;
+    }
+
+    /**
+     * Разбиение графа зависимостей на уровни остановки. Уровень узла на единицу больше максимального уровня
+     * зависящих от него узлов, узлы без зависимых имеют уровень 0.
+     *
+     * @param roots        исходные узлы графа.
+     * @param dependencies функция получения зависимостей узла.
+     * @param <T>          тип узлов.
+     * @return узлы графа, сгруппированные по уровням.
+     */
+    static <T> List<List<T>> stopLevels(
+            @NotNull Collection<? extends T> roots,
+            @NotNull Function<T, ? extends Collection<? extends T>> dependencies) {
+        // Узлы сравниваются по ссылке: контейнеры testcontainers переопределяют equals по конфигурации
+        Map<T, Set<T>> dependents = new IdentityHashMap<>();
+        List<T> nodes = new ArrayList<>();
+        List<T> queue = new ArrayList<>(roots);
+        while (!queue.isEmpty()) {
+            T node = queue.remove(0);
+            if (dependents.containsKey(node)) {
+                continue;
+            }
+            dependents.put(node, Collections.newSetFromMap(new IdentityHashMap<>()));
+            nodes.add(node);
+            queue.addAll(dependencies.apply(node));
+        }
+        for (T node : nodes) {
+            for (T dependency : dependencies.apply(node)) {
+                dependents.get(dependency).add(node);
+            }
+        }
+
+        Map<T, Integer> levels = new IdentityHashMap<>();
+        int maxLevel = -1;
+        for (T node : nodes) {
+            maxLevel = Math.max(maxLevel, level(node, dependents, levels, Collections.newSetFromMap(new IdentityHashMap<>())));
+        }
+        List<List<T>> result = new ArrayList<>();
+        for (int i = 0; i <= maxLevel; i++) {
+            result.add(new ArrayList<>());
+        }
+        for (T node : nodes) {
+            result.get(levels.get(node)).add(node);
+        }
+        return result;
+    }
+
+    private static <T> int level(T node, Map<T, Set<T>> dependents, Map<T, Integer> levels, Set<T> path) {
+        Integer known = levels.get(node);
+        if (known != null) {
+            return known;
+        }
+        if (!path.add(node)) {
+            throw new IllegalTestConfigurationException("Циклическая зависимость контейнеров стенда: " + node);
+        }
+        int level = 0;
+        for (T dependent : dependents.get(node)) {
+            level = Math.max(level, level(dependent, dependents, levels, path) + 1);
+        }
+        path.remove(node);
+        levels.put(node, level);
+        return level;
+    }
+}
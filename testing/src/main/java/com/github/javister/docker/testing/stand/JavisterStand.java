@@ -0,0 +1,68 @@
+package com.github.javister.docker.testing.stand;
+
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Отмечает поле тестового класса с контейнером (или стендом из контейнера и его зависимостей), жизненным циклом
+ * которого управляет {@link JavisterStandExtension}.
+ *
+ * <p>Контейнер запускается при первом использовании и разделяется между всеми его пользователями: тестовыми классами
+ * или тестовыми методами, в зависимости от {@link #scope()}. Один и тот же объект контейнера, например объявленный
+ * в общем базовом классе или классе-хранилище стендов, запускается один раз. Контейнер останавливается, когда его
+ * отпускает последний пользователь, а контейнер с областью {@link Scope#SUITE} - по завершении всех тестов.
+ *
+ * <pre>{@code
+ * class MyTest {
+ *     @JavisterStand(scope = JavisterStand.Scope.SUITE, reset = ClearApp.class)
+ *     static final JavisterBaseContainer<?> app = Stands.APP;
+ * }
+ * }</pre>
+ *
+ * <p>Поле не должно одновременно отмечаться аннотацией {@link org.testcontainers.junit.jupiter.Container}.
+ */
+@Documented
+@Target(ElementType.FIELD)
+@Retention(RetentionPolicy.RUNTIME)
+@ExtendWith(JavisterStandExtension.class)
+public @interface JavisterStand {
+    /**
+     * Область разделения контейнера.
+     */
+    enum Scope {
+        /**
+         * Контейнер живёт до завершения всех тестов и переиспользуется последовательно выполняющимися тестовыми
+         * классами. Поле должно быть статическим.
+         */
+        SUITE,
+        /**
+         * Контейнер запускается перед тестовым классом и останавливается после него, если его не используют
+         * параллельно выполняющиеся тестовые классы. Поле должно быть статическим.
+         */
+        CLASS,
+        /**
+         * Контейнер запускается перед тестовым методом и останавливается после него, если его не используют
+         * параллельно выполняющиеся тестовые методы.
+         */
+        METHOD
+    }
+
+    /**
+     * @return область разделения контейнера.
+     */
+    Scope scope() default Scope.CLASS;
+
+    /**
+     * Класс процедуры сброса состояния контейнера, выполняемой перед передачей уже использованного контейнера
+     * следующему пользователю. Класс должен иметь конструктор без параметров.
+     *
+     * @return класс процедуры сброса состояния.
+     */
+    @SuppressWarnings("rawtypes")
+    Class<? extends StandResetHook> reset() default StandResetHook.None.class;
+}
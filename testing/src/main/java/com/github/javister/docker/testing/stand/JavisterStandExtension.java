@@ -0,0 +1,124 @@
+package com.github.javister.docker.testing.stand;
+
+import com.github.javister.docker.testing.IllegalTestConfigurationException;
+import org.jetbrains.annotations.Nullable;
+import org.junit.jupiter.api.extension.AfterAllCallback;
+import org.junit.jupiter.api.extension.AfterEachCallback;
+import org.junit.jupiter.api.extension.BeforeAllCallback;
+import org.junit.jupiter.api.extension.BeforeEachCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.platform.commons.support.AnnotationSupport;
+import org.junit.platform.commons.support.HierarchyTraversalMode;
+import org.junit.platform.commons.support.ReflectionSupport;
+import org.testcontainers.lifecycle.Startable;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * JUnit 5 расширение, управляющее жизненным циклом контейнеров из полей с аннотацией {@link JavisterStand}.
+ *
+ * <p>Регистрируется автоматически аннотацией {@link JavisterStand}. Контейнеры с областью {@link JavisterStand.Scope#SUITE}
+ * и {@link JavisterStand.Scope#CLASS} регистрируют пользователя перед тестовым классом, с областью
+ * {@link JavisterStand.Scope#METHOD} - перед каждым тестовым методом. Контейнеры запускаются в порядке объявления
+ * полей, а отпускаются в обратном порядке.
+ */
+public class JavisterStandExtension implements BeforeAllCallback, AfterAllCallback, BeforeEachCallback, AfterEachCallback {
+    private static final ExtensionContext.Namespace NAMESPACE = ExtensionContext.Namespace.create(JavisterStandExtension.class);
+    private static final String ACQUIRED = "acquired";
+    private static final String SUITE_STANDS = "suiteStands";
+
+    private final StandRegistry registry = StandRegistry.getInstance();
+
+    @Override
+    public void beforeAll(ExtensionContext context) throws Exception {
+        List<Startable> acquired = new ArrayList<>();
+        context.getStore(NAMESPACE).put(ACQUIRED, acquired);
+        for (Field field : findFields(context.getRequiredTestClass())) {
+            JavisterStand.Scope scope = field.getAnnotation(JavisterStand.class).scope();
+            if (scope == JavisterStand.Scope.METHOD) {
+                continue;
+            }
+            if (!Modifier.isStatic(field.getModifiers())) {
+                throw new IllegalTestConfigurationException("The field " + field + " with the " + scope
+                        + " scope must be static");
+            }
+            if (scope == JavisterStand.Scope.SUITE) {
+                // Контейнеры с областью SUITE останавливаются при закрытии корневого контекста - после всех тестов
+                context.getRoot().getStore(NAMESPACE).getOrComputeIfAbsent(
+                        SUITE_STANDS,
+                        key -> (ExtensionContext.Store.CloseableResource) registry::stopKeptAlive);
+            }
+            acquire(acquired, field, null, scope == JavisterStand.Scope.SUITE);
+        }
+    }
+
+    @Override
+    public void afterAll(ExtensionContext context) {
+        release(context);
+    }
+
+    @Override
+    public void beforeEach(ExtensionContext context) throws Exception {
+        List<Startable> acquired = new ArrayList<>();
+        context.getStore(NAMESPACE).put(ACQUIRED, acquired);
+        Object testInstance = context.getRequiredTestInstance();
+        for (Field field : findFields(context.getRequiredTestClass())) {
+            if (field.getAnnotation(JavisterStand.class).scope() == JavisterStand.Scope.METHOD) {
+                acquire(acquired, field, Modifier.isStatic(field.getModifiers()) ? null : testInstance, false);
+            }
+        }
+    }
+
+    @Override
+    public void afterEach(ExtensionContext context) {
+        release(context);
+    }
+
+    private static List<Field> findFields(Class<?> testClass) {
+        return ReflectionSupport.findFields(
+                testClass,
+                field -> AnnotationSupport.isAnnotated(field, JavisterStand.class),
+                HierarchyTraversalMode.TOP_DOWN);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void acquire(List<Startable> acquired, Field field, @Nullable Object testInstance, boolean keepAlive)
+            throws Exception {
+        if (!Startable.class.isAssignableFrom(field.getType())) {
+            throw new IllegalTestConfigurationException("The field " + field + " is not a container");
+        }
+        Startable container = (Startable) ReflectionSupport.tryToReadFieldValue(field, testInstance).get();
+        if (container == null) {
+            throw new IllegalTestConfigurationException("The field " + field + " is null");
+        }
+        StandResetHook<Startable> resetHook = ReflectionSupport.newInstance(field.getAnnotation(JavisterStand.class).reset());
+        registry.acquire(container, resetHook, keepAlive);
+        acquired.add(container);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void release(ExtensionContext context) {
+        List<Startable> acquired = context.getStore(NAMESPACE).remove(ACQUIRED, List.class);
+        if (acquired == null) {
+            return;
+        }
+        RuntimeException error = null;
+        for (int i = acquired.size() - 1; i >= 0; i--) {
+            try {
+                registry.release(acquired.get(i));
+            } catch (RuntimeException e) {
+                if (error == null) {
+                    error = e;
+                } else {
+                    error.addSuppressed(e);
+                }
+            }
+        }
+        if (error != null) {
+            throw error;
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.github.javister.docker.testing.stand;
+
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testcontainers.lifecycle.Startable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Учёт пользователей разделяемых контейнеров.
+ *
+ * <p>Контейнеры сравниваются по ссылке: контейнеры testcontainers переопределяют equals по конфигурации.
+ */
+class StandRegistry {
+    private static final Logger LOGGER = LoggerFactory.getLogger(StandRegistry.class);
+    private static final StandRegistry INSTANCE = new StandRegistry();
+
+    private final Map<Startable, Usage> usages = new IdentityHashMap<>();
+    /**
+     * Контейнеры, живущие до завершения всех тестов, в порядке запуска.
+     */
+    private final List<Startable> keptAlive = new ArrayList<>();
+
+    static StandRegistry getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Регистрация пользователя контейнера. Контейнер запускается, если ещё не запущен. Если контейнер уже
+     * использовался и сейчас не используется никем, перед передачей пользователю сбрасывается его состояние.
+     *
+     * @param container контейнер.
+     * @param resetHook процедура сброса состояния контейнера.
+     * @param keepAlive true, если контейнер должен жить до вызова {@link #stopKeptAlive()}.
+     * @throws Exception в случае ошибки запуска или сброса состояния контейнера.
+     */
+    void acquire(@NotNull Startable container, @NotNull StandResetHook<Startable> resetHook, boolean keepAlive)
+            throws Exception {
+        Usage usage;
+        synchronized (this) {
+            usage = usages.computeIfAbsent(container, key -> new Usage());
+        }
+        synchronized (usage) {
+            if (!usage.started) {
+                container.start();
+                usage.started = true;
+            } else if (usage.users == 0 && usage.used) {
+                resetHook.reset(container);
+            }
+            usage.users++;
+            usage.used = true;
+            if (keepAlive && !usage.keepAlive) {
+                usage.keepAlive = true;
+                synchronized (this) {
+                    keptAlive.add(container);
+                }
+            }
+        }
+    }
+
+    /**
+     * Отмена регистрации пользователя контейнера. Контейнер останавливается, если у него не осталось пользователей
+     * и он не должен жить до завершения всех тестов.
+     *
+     * @param container контейнер.
+     */
+    void release(@NotNull Startable container) {
+        Usage usage;
+        synchronized (this) {
+            usage = usages.get(container);
+        }
+        if (usage == null) {
+            return;
+        }
+        synchronized (usage) {
+            if (usage.users > 0) {
+                usage.users--;
+            }
+            if (usage.users == 0 && !usage.keepAlive && usage.started) {
+                usage.started = false;
+                usage.used = false;
+                container.stop();
+            }
+        }
+    }
+
+    /**
+     * Остановка контейнеров, живущих до завершения всех тестов, в порядке, обратном порядку их запуска.
+     */
+    void stopKeptAlive() {
+        List<Startable> containers;
+        synchronized (this) {
+            containers = new ArrayList<>(keptAlive);
+            keptAlive.clear();
+        }
+        Collections.reverse(containers);
+        for (Startable container : containers) {
+            Usage usage;
+            synchronized (this) {
+                usage = usages.get(container);
+            }
+            synchronized (usage) {
+                usage.keepAlive = false;
+                if (usage.users > 0) {
+                    LOGGER.warn("Stopping the container {} that is still in use", container);
+                }
+                usage.users = 0;
+                usage.used = false;
+                if (usage.started) {
+                    usage.started = false;
+                    try {
+                        container.stop();
+                    } catch (RuntimeException e) {
+                        LOGGER.warn("Can't stop the container {}", container, e);
+                    }
+                }
+            }
+        }
+    }
+
+    private static class Usage {
+        private boolean started;
+        private boolean used;
+        private boolean keepAlive;
+        private int users;
+    }
+}
@@ -0,0 +1,30 @@
+package com.github.javister.docker.testing.stand;
+
+import org.testcontainers.lifecycle.Startable;
+
+/**
+ * Процедура сброса состояния разделяемого контейнера между его пользователями
+ * (см. {@link JavisterStand#reset()}). Например очистка каталога {@code /app} или таблиц БД.
+ *
+ * @param <T> тип контейнера.
+ */
+@FunctionalInterface
+public interface StandResetHook<T extends Startable> {
+    /**
+     * Сброс состояния контейнера.
+     *
+     * @param container запущенный контейнер, уже использованный предыдущим пользователем.
+     * @throws Exception в случае ошибки сброса. Ошибка проваливает тесты следующего пользователя.
+     */
+    void reset(T container) throws Exception;
+
+    /**
+     * Отсутствие сброса состояния.
+     */
+    final class None implements StandResetHook<Startable> {
+        @Override
+        public void reset(Startable container) {
+            // Состояние не сбрасывается
+        }
+    }
+}
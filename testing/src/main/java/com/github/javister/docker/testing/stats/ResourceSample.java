@@ -0,0 +1,177 @@
+package com.github.javister.docker.testing.stats;
+
+import com.github.dockerjava.api.model.BlkioStatEntry;
+import com.github.dockerjava.api.model.BlkioStatsConfig;
+import com.github.dockerjava.api.model.CpuStatsConfig;
+import com.github.dockerjava.api.model.MemoryStatsConfig;
+import com.github.dockerjava.api.model.StatisticNetworksConfig;
+import com.github.dockerjava.api.model.Statistics;
+import com.github.dockerjava.api.model.StatsConfig;
+import org.jetbrains.annotations.NotNull;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Одно измерение потребления ресурсов контейнером.
+ *
+ * <p>Счётчики блочного и сетевого ввода-вывода накопительные - от старта контейнера.
+ */
+public class ResourceSample {
+    private final Instant time;
+    private final double cpuPercent;
+    private final long memoryUsage;
+    private final long memoryLimit;
+    private final long blockRead;
+    private final long blockWrite;
+    private final long networkRx;
+    private final long networkTx;
+
+    public ResourceSample(
+            @NotNull Instant time,
+            double cpuPercent,
+            long memoryUsage,
+            long memoryLimit,
+            long blockRead,
+            long blockWrite,
+            long networkRx,
+            long networkTx) {
+        this.time = time;
+        this.cpuPercent = cpuPercent;
+        this.memoryUsage = memoryUsage;
+        this.memoryLimit = memoryLimit;
+        this.blockRead = blockRead;
+        this.blockWrite = blockWrite;
+        this.networkRx = networkRx;
+        this.networkTx = networkTx;
+    }
+
+    /**
+     * Формирование измерения из статистики Docker.
+     *
+     * <p>Загрузка CPU считается так же, как в {@code docker stats}: в процентах от одного ядра, то есть для
+     * нескольких ядер может превышать 100. Из потребления памяти исключается неактивный файловый кэш.
+     *
+     * @param time       время измерения.
+     * @param statistics статистика Docker.
+     * @return измерение.
+     */
+    @NotNull
+    public static ResourceSample from(@NotNull Instant time, @NotNull Statistics statistics) {
+        long blockRead = 0;
+        long blockWrite = 0;
+        BlkioStatsConfig blkio = statistics.getBlkioStats();
+        List<BlkioStatEntry> entries = blkio != null ? blkio.getIoServiceBytesRecursive() : null;
+        if (entries != null) {
+            for (BlkioStatEntry entry : entries) {
+                if ("read".equalsIgnoreCase(entry.getOp())) {
+                    blockRead += value(entry.getValue());
+                } else if ("write".equalsIgnoreCase(entry.getOp())) {
+                    blockWrite += value(entry.getValue());
+                }
+            }
+        }
+
+        long networkRx = 0;
+        long networkTx = 0;
+        Map<String, StatisticNetworksConfig> networks = statistics.getNetworks();
+        if (networks != null) {
+            for (StatisticNetworksConfig network : networks.values()) {
+                networkRx += value(network.getRxBytes());
+                networkTx += value(network.getTxBytes());
+            }
+        }
+
+        MemoryStatsConfig memory = statistics.getMemoryStats();
+        return new ResourceSample(
+                time,
+                cpuPercent(statistics.getCpuStats(), statistics.getPreCpuStats()),
+                memory != null ? memoryUsage(memory) : 0,
+                memory != null ? value(memory.getLimit()) : 0,
+                blockRead,
+                blockWrite,
+                networkRx,
+                networkTx);
+    }
+
+    private static double cpuPercent(CpuStatsConfig cpu, CpuStatsConfig preCpu) {
+        if (cpu == null || preCpu == null || cpu.getCpuUsage() == null || preCpu.getCpuUsage() == null) {
+            return 0;
+        }
+        long cpuDelta = value(cpu.getCpuUsage().getTotalUsage()) - value(preCpu.getCpuUsage().getTotalUsage());
+        long systemDelta = value(cpu.getSystemCpuUsage()) - value(preCpu.getSystemCpuUsage());
+        if (cpuDelta <= 0 || systemDelta <= 0) {
+            return 0;
+        }
+        long onlineCpus = value(cpu.getOnlineCpus());
+        if (onlineCpus == 0 && cpu.getCpuUsage().getPercpuUsage() != null) {
+            onlineCpus = cpu.getCpuUsage().getPercpuUsage().size();
+        }
+        return (double) cpuDelta / systemDelta * Math.max(onlineCpus, 1) * 100.0;
+    }
+
+    private static long memoryUsage(MemoryStatsConfig memory) {
+        long usage = value(memory.getUsage());
+        StatsConfig stats = memory.getStats();
+        if (stats != null) {
+            // cgroup v1 публикует total_inactive_file, cgroup v2 - inactive_file
+            Long inactiveFile = stats.getTotalInactiveFile() != null ? stats.getTotalInactiveFile() : stats.getInactiveFile();
+            if (inactiveFile != null && inactiveFile < usage) {
+                usage -= inactiveFile;
+            }
+        }
+        return usage;
+    }
+
+    private static long value(Long value) {
+        return value != null ? value : 0;
+    }
+
+    @NotNull
+    public Instant getTime() {
+        return time;
+    }
+
+    /**
+     * @return загрузка CPU в процентах от одного ядра.
+     */
+    public double getCpuPercent() {
+        return cpuPercent;
+    }
+
+    /**
+     * @return потребление памяти в байтах без неактивного файлового кэша.
+     */
+    public long getMemoryUsage() {
+        return memoryUsage;
+    }
+
+    /**
+     * @return ограничение памяти контейнера в байтах.
+     */
+    public long getMemoryLimit() {
+        return memoryLimit;
+    }
+
+    public long getBlockRead() {
+        return blockRead;
+    }
+
+    public long getBlockWrite() {
+        return blockWrite;
+    }
+
+    public long getNetworkRx() {
+        return networkRx;
+    }
+
+    public long getNetworkTx() {
+        return networkTx;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s cpu=%.1f%% mem=%d", time, cpuPercent, memoryUsage);
+    }
+}
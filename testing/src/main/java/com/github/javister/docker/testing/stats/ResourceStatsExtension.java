@@ -0,0 +1,78 @@
+package com.github.javister.docker.testing.stats;
+
+import com.github.javister.docker.testing.TestRunException;
+import com.github.javister.docker.testing.base.JavisterBaseContainer;
+import org.junit.jupiter.api.extension.AfterEachCallback;
+import org.junit.jupiter.api.extension.BeforeEachCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.platform.commons.support.HierarchyTraversalMode;
+import org.junit.platform.commons.support.ReflectionSupport;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.time.Instant;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * JUnit 5 расширение, выгружающее в отчёт о тестировании потребление ресурсов контейнерами за время каждого теста.
+ *
+ * <p>Учитываются контейнеры из полей тестового класса (статических и полей экземпляра) и их внутренние зависимости,
+ * для которых включён сбор статистики (см. {@link com.github.javister.docker.testing.base.JavisterBaseContainerImpl#withStatsSampling()}).
+ *
+ * <pre>{@code
+ * @Testcontainers
+ * @ExtendWith(ResourceStatsExtension.class)
+ * class MyTest {
+ *     @Container
+ *     static JavisterBaseContainerImpl<?> container = new JavisterBaseContainerImpl<>(MyTest.class).withStatsSampling();
+ * }
+ * }</pre>
+ */
+public class ResourceStatsExtension implements BeforeEachCallback, AfterEachCallback {
+    private static final ExtensionContext.Namespace NAMESPACE = ExtensionContext.Namespace.create(ResourceStatsExtension.class);
+    private static final String TEST_START = "testStart";
+
+    @Override
+    public void beforeEach(ExtensionContext context) {
+        context.getStore(NAMESPACE).put(TEST_START, Instant.now());
+    }
+
+    @Override
+    public void afterEach(ExtensionContext context) {
+        Instant start = context.getStore(NAMESPACE).remove(TEST_START, Instant.class);
+        if (start == null) {
+            return;
+        }
+        Set<JavisterBaseContainer<?>> containers = new LinkedHashSet<>();
+        Object testInstance = context.getTestInstance().orElse(null);
+        context.getTestClass().ifPresent(testClass -> ReflectionSupport
+                .findFields(testClass, field -> JavisterBaseContainer.class.isAssignableFrom(field.getType()), HierarchyTraversalMode.TOP_DOWN)
+                .forEach(field -> collect(containers, readField(field, testInstance))));
+        for (JavisterBaseContainer<?> container : containers) {
+            ResourceStatsSampler sampler = container.getStatsSampler();
+            if (sampler != null) {
+                sampler.report(start);
+            }
+        }
+    }
+
+    private static void collect(Set<JavisterBaseContainer<?>> containers, JavisterBaseContainer<?> container) {
+        if (container != null && containers.add(container)) {
+            container.getInternalDependencies().forEach(it -> collect(containers, it));
+        }
+    }
+
+    private static JavisterBaseContainer<?> readField(Field field, Object testInstance) {
+        boolean isStatic = Modifier.isStatic(field.getModifiers());
+        if (!isStatic && testInstance == null) {
+            return null;
+        }
+        try {
+            field.setAccessible(true);
+            return (JavisterBaseContainer<?>) field.get(isStatic ? null : testInstance);
+        } catch (IllegalAccessException e) {
+            throw new TestRunException("Can't read the container field " + field.getName(), e);
+        }
+    }
+}
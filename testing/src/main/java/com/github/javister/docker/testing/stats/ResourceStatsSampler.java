@@ -0,0 +1,184 @@
+package com.github.javister.docker.testing.stats;
+
+import com.github.dockerjava.api.DockerClient;
+import com.github.dockerjava.api.async.ResultCallback;
+import com.github.dockerjava.api.model.Statistics;
+import com.github.javister.docker.testing.AllureSupport;
+import io.qameta.allure.Allure;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Фоновый сбор статистики потребления ресурсов контейнером.
+ *
+ * <p>Статистика читается потоком {@code docker stats} (Docker публикует одно измерение примерно раз в секунду)
+ * и хранится в кольцевом буфере ограниченного размера: при его заполнении старые измерения вытесняются новыми.
+ * По измерениям за произвольный интервал, например за время выполнения одного теста, подсчитываются пиковые
+ * и средние значения, которые можно выгрузить в отчёт о тестировании.
+ */
+public class ResourceStatsSampler implements AutoCloseable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ResourceStatsSampler.class);
+
+    /**
+     * Размер буфера измерений по умолчанию - около часа работы контейнера.
+     */
+    public static final int DEFAULT_CAPACITY = 3600;
+
+    private final String name;
+    private final ResourceSample[] samples;
+    private int head = 0;
+    private int size = 0;
+    private ResultCallback.Adapter<Statistics> callback;
+
+    /**
+     * Создаёт сборщик статистики.
+     *
+     * @param name     имя контейнера, используемое в отчётах.
+     * @param capacity максимальное количество хранимых измерений.
+     */
+    public ResourceStatsSampler(@NotNull String name, int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+        this.name = name;
+        this.samples = new ResourceSample[capacity];
+    }
+
+    /**
+     * Запуск сбора статистики контейнера.
+     *
+     * @param dockerClient клиент Docker.
+     * @param containerId  идентификатор запущенного контейнера.
+     * @return возвращает this для fluent API.
+     */
+    @NotNull
+    public synchronized ResourceStatsSampler start(@NotNull DockerClient dockerClient, @NotNull String containerId) {
+        if (callback != null) {
+            return this;
+        }
+        callback = dockerClient.statsCmd(containerId).exec(new ResultCallback.Adapter<Statistics>() {
+            @Override
+            public void onNext(Statistics statistics) {
+                add(ResourceSample.from(Instant.now(), statistics));
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                LOGGER.debug("Resource statistics stream of {} is interrupted", name, throwable);
+                super.onError(throwable);
+            }
+        });
+        return this;
+    }
+
+    /**
+     * Добавление измерения в буфер.
+     *
+     * @param sample измерение.
+     */
+    public synchronized void add(@NotNull ResourceSample sample) {
+        samples[(head + size) % samples.length] = sample;
+        if (size < samples.length) {
+            size++;
+        } else {
+            head = (head + 1) % samples.length;
+        }
+    }
+
+    /**
+     * Получение всех хранимых измерений.
+     *
+     * @return измерения, упорядоченные по времени.
+     */
+    @NotNull
+    public List<ResourceSample> getSamples() {
+        return getSamples(null);
+    }
+
+    /**
+     * Получение хранимых измерений, сделанных начиная с заданного момента.
+     *
+     * @param since момент времени, с которого нужны измерения, или null для всех измерений.
+     * @return измерения, упорядоченные по времени.
+     */
+    @NotNull
+    public synchronized List<ResourceSample> getSamples(@Nullable Instant since) {
+        List<ResourceSample> result = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            ResourceSample sample = samples[(head + i) % samples.length];
+            if (since == null || !sample.getTime().isBefore(since)) {
+                result.add(sample);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Подсчёт итогов по всем хранимым измерениям.
+     *
+     * @return итоги.
+     */
+    @NotNull
+    public ResourceSummary getSummary() {
+        return ResourceSummary.of(getSamples());
+    }
+
+    /**
+     * Подсчёт итогов по измерениям, сделанным начиная с заданного момента.
+     *
+     * @param since момент времени, например начало теста.
+     * @return итоги.
+     */
+    @NotNull
+    public ResourceSummary getSummary(@NotNull Instant since) {
+        return ResourceSummary.of(getSamples(since));
+    }
+
+    /**
+     * Выгрузка итогов по измерениям, сделанным начиная с заданного момента, в отчёт о тестировании.
+     *
+     * <p>При наличии Allure итоги прикладываются к текущему тесту в виде текстового вложения, иначе выводятся в лог.
+     *
+     * @param since момент времени, например начало теста.
+     * @return итоги.
+     */
+    @NotNull
+    public ResourceSummary report(@NotNull Instant since) {
+        ResourceSummary summary = getSummary(since);
+        String title = "Resource usage: " + name;
+        if (AllureSupport.isAvailable()) {
+            Allure.addAttachment(title, "text/plain", summary.formatReport(), ".txt");
+        } else {
+            LOGGER.info("{}\n{}", title, summary.formatReport());
+        }
+        return summary;
+    }
+
+    @NotNull
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Останавливает сбор статистики. Собранные измерения остаются доступны.
+     */
+    @Override
+    public synchronized void close() {
+        if (callback == null) {
+            return;
+        }
+        try {
+            callback.close();
+        } catch (IOException e) {
+            LOGGER.debug("Can't close the resource statistics stream of {}", name, e);
+        }
+        callback = null;
+    }
+}
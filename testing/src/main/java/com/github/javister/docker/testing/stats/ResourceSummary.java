@@ -0,0 +1,156 @@
+package com.github.javister.docker.testing.stats;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Пиковые и средние значения потребления ресурсов контейнером за интервал времени.
+ */
+public class ResourceSummary {
+    private static final long MEGABYTE = 1024 * 1024;
+
+    private final int sampleCount;
+    private final Duration duration;
+    private final double peakCpuPercent;
+    private final double averageCpuPercent;
+    private final long peakMemoryUsage;
+    private final long averageMemoryUsage;
+    private final long blockRead;
+    private final long blockWrite;
+    private final long networkRx;
+    private final long networkTx;
+
+    private ResourceSummary(List<ResourceSample> samples) {
+        sampleCount = samples.size();
+        double peakCpu = 0;
+        double totalCpu = 0;
+        long peakMemory = 0;
+        double totalMemory = 0;
+        for (ResourceSample sample : samples) {
+            peakCpu = Math.max(peakCpu, sample.getCpuPercent());
+            totalCpu += sample.getCpuPercent();
+            peakMemory = Math.max(peakMemory, sample.getMemoryUsage());
+            totalMemory += sample.getMemoryUsage();
+        }
+        peakCpuPercent = peakCpu;
+        averageCpuPercent = sampleCount > 0 ? totalCpu / sampleCount : 0;
+        peakMemoryUsage = peakMemory;
+        averageMemoryUsage = sampleCount > 0 ? Math.round(totalMemory / sampleCount) : 0;
+
+        if (sampleCount > 1) {
+            ResourceSample first = samples.get(0);
+            ResourceSample last = samples.get(sampleCount - 1);
+            duration = Duration.between(first.getTime(), last.getTime());
+            // При перезапуске контейнера счётчики сбрасываются - отрицательную разницу не учитываем
+            blockRead = Math.max(0, last.getBlockRead() - first.getBlockRead());
+            blockWrite = Math.max(0, last.getBlockWrite() - first.getBlockWrite());
+            networkRx = Math.max(0, last.getNetworkRx() - first.getNetworkRx());
+            networkTx = Math.max(0, last.getNetworkTx() - first.getNetworkTx());
+        } else {
+            duration = Duration.ZERO;
+            blockRead = 0;
+            blockWrite = 0;
+            networkRx = 0;
+            networkTx = 0;
+        }
+    }
+
+    /**
+     * Подсчёт итогов по измерениям.
+     *
+     * @param samples измерения, упорядоченные по времени.
+     * @return итоги.
+     */
+    @NotNull
+    public static ResourceSummary of(@NotNull List<ResourceSample> samples) {
+        return new ResourceSummary(samples);
+    }
+
+    public int getSampleCount() {
+        return sampleCount;
+    }
+
+    /**
+     * @return время между первым и последним измерением.
+     */
+    @NotNull
+    public Duration getDuration() {
+        return duration;
+    }
+
+    public double getPeakCpuPercent() {
+        return peakCpuPercent;
+    }
+
+    public double getAverageCpuPercent() {
+        return averageCpuPercent;
+    }
+
+    public long getPeakMemoryUsage() {
+        return peakMemoryUsage;
+    }
+
+    public long getAverageMemoryUsage() {
+        return averageMemoryUsage;
+    }
+
+    /**
+     * @return объём прочитанных с блочных устройств данных за интервал в байтах.
+     */
+    public long getBlockRead() {
+        return blockRead;
+    }
+
+    /**
+     * @return объём записанных на блочные устройства данных за интервал в байтах.
+     */
+    public long getBlockWrite() {
+        return blockWrite;
+    }
+
+    /**
+     * @return объём принятых по сети данных за интервал в байтах.
+     */
+    public long getNetworkRx() {
+        return networkRx;
+    }
+
+    /**
+     * @return объём отправленных по сети данных за интервал в байтах.
+     */
+    public long getNetworkTx() {
+        return networkTx;
+    }
+
+    /**
+     * Формирование текстового отчёта.
+     *
+     * @return текстовый отчёт.
+     */
+    @NotNull
+    public String formatReport() {
+        return String.format(Locale.ROOT,
+                "Samples: %d over %d ms%n"
+                        + "CPU: peak %.1f%%, average %.1f%%%n"
+                        + "Memory: peak %.1f MB, average %.1f MB%n"
+                        + "Block I/O: read %.1f MB, written %.1f MB%n"
+                        + "Network: received %.1f MB, sent %.1f MB%n",
+                sampleCount, duration.toMillis(),
+                peakCpuPercent, averageCpuPercent,
+                megabytes(peakMemoryUsage), megabytes(averageMemoryUsage),
+                megabytes(blockRead), megabytes(blockWrite),
+                megabytes(networkRx), megabytes(networkTx));
+    }
+
+    private static double megabytes(long bytes) {
+        return (double) bytes / MEGABYTE;
+    }
+
+    @Override
+    public String toString() {
+        return formatReport();
+    }
+}
@@ -0,0 +1,64 @@
+package com.github.javister.docker.testing;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AsyncSupportTest {
+
+    @Test
+    void supplyResult() throws Exception {
+        assertEquals("ok", AsyncSupport.supplyAsync(() -> "ok").get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void passCheckedException() {
+        CompletableFuture<Object> future = AsyncSupport.supplyAsync(() -> {
+            throw new IOException("boom");
+        });
+        ExecutionException e = assertThrows(ExecutionException.class, () -> future.get(5, TimeUnit.SECONDS));
+        assertTrue(e.getCause() instanceof IOException);
+    }
+
+    @Test
+    void cancelInterruptsTask() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch interrupted = new CountDownLatch(1);
+        CompletableFuture<Object> future = AsyncSupport.supplyAsync(() -> {
+            started.countDown();
+            try {
+                Thread.sleep(TimeUnit.MINUTES.toMillis(1));
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+            }
+            return null;
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        future.cancel(true);
+        assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void timeout() throws Exception {
+        CountDownLatch interrupted = new CountDownLatch(1);
+        CompletableFuture<Object> future = AsyncSupport.withTimeout(AsyncSupport.supplyAsync(() -> {
+            try {
+                Thread.sleep(TimeUnit.MINUTES.toMillis(1));
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+            }
+            return null;
+        }), Duration.ofMillis(100));
+        ExecutionException e = assertThrows(ExecutionException.class, () -> future.get(5, TimeUnit.SECONDS));
+        assertTrue(e.getCause() instanceof TimeoutException);
+        assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+    }
+}
@@ -0,0 +1,97 @@
+package com.github.javister.docker.testing.artifacts;
+
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveInputStream;
+import org.apache.commons.compress.archivers.tar.TarArchiveOutputStream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ArtifactCollectorTest {
+
+    @Test
+    void extractFiles(@TempDir Path dir) throws Exception {
+        byte[] large = new byte[2 * 1024 * 1024];
+        Arrays.fill(large, (byte) 'x');
+        Path target = dir.resolve("app");
+        new ArtifactCollector(dir).extract(tar(
+                directory("etc/"),
+                file("etc/app.conf", "key=value".getBytes(StandardCharsets.UTF_8)),
+                file("var/log/app.log", large)), target);
+
+        assertEquals("key=value", new String(Files.readAllBytes(target.resolve("etc/app.conf")), StandardCharsets.UTF_8));
+        assertArrayEquals(large, Files.readAllBytes(target.resolve("var/log/app.log")));
+    }
+
+    @Test
+    void sizeLimits(@TempDir Path dir) throws Exception {
+        Path target = dir.resolve("app");
+        new ArtifactCollector(dir)
+                .withMaxArtifactSize(4)
+                .withMaxTotalSize(6)
+                .extract(tar(
+                        file("a.txt", "123456".getBytes(StandardCharsets.UTF_8)),
+                        file("b.txt", "12".getBytes(StandardCharsets.UTF_8)),
+                        file("c.txt", "1".getBytes(StandardCharsets.UTF_8))), target);
+
+        assertEquals("1234", new String(Files.readAllBytes(target.resolve("a.txt")), StandardCharsets.UTF_8));
+        assertEquals("12", new String(Files.readAllBytes(target.resolve("b.txt")), StandardCharsets.UTF_8));
+        assertFalse(Files.exists(target.resolve("c.txt")));
+    }
+
+    @Test
+    void rejectPathTraversal(@TempDir Path dir) throws Exception {
+        Path target = dir.resolve("app");
+        TarArchiveEntry link = new TarArchiveEntry("passwd", TarArchiveEntry.LF_SYMLINK);
+        link.setLinkName("/etc/passwd");
+        new ArtifactCollector(dir).extract(tar(
+                file("../evil.txt", "evil".getBytes(StandardCharsets.UTF_8)),
+                new Content(link, new byte[0]),
+                file("good.txt", "good".getBytes(StandardCharsets.UTF_8))), target);
+
+        assertFalse(Files.exists(dir.resolve("evil.txt")));
+        assertFalse(Files.exists(target.resolve("passwd")));
+        assertTrue(Files.exists(target.resolve("good.txt")));
+    }
+
+    private static TarArchiveInputStream tar(Content... contents) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (TarArchiveOutputStream out = new TarArchiveOutputStream(bytes)) {
+            for (Content content : contents) {
+                out.putArchiveEntry(content.entry);
+                out.write(content.bytes);
+                out.closeArchiveEntry();
+            }
+        }
+        return new TarArchiveInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+    }
+
+    private static Content directory(String name) {
+        return new Content(new TarArchiveEntry(name), new byte[0]);
+    }
+
+    private static Content file(String name, byte[] bytes) {
+        TarArchiveEntry entry = new TarArchiveEntry(name, true);
+        entry.setSize(bytes.length);
+        return new Content(entry, bytes);
+    }
+
+    private static class Content {
+        private final TarArchiveEntry entry;
+        private final byte[] bytes;
+
+        Content(TarArchiveEntry entry, byte[] bytes) {
+            this.entry = entry;
+            this.bytes = bytes;
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.github.javister.docker.testing.boot;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BootProfileTest {
+
+    @Test
+    void readProfile() throws IOException {
+        BootProfile profile = BootProfile.read(new ByteArrayInputStream((
+                "{\"started\": 1714550400.5, \"complete\": true, \"phases\": ["
+                        + "{\"type\": \"script\", \"name\": \"/etc/my_init.d/08_setup_user.sh\", \"start\": 0.01, \"end\": 0.21, \"status\": 0},"
+                        + "{\"type\": \"script\", \"name\": \"/etc/my_init.d/10_setup_syslog_ng.sh\", \"start\": 0.21, \"end\": 1.71, \"status\": 0},"
+                        + "{\"type\": \"runit\", \"name\": \"runsvdir\", \"start\": 1.72, \"end\": 1.72, \"status\": 0},"
+                        + "{\"type\": \"service\", \"name\": \"cron\", \"start\": 1.72, \"end\": null, \"status\": null},"
+                        + "{\"type\": \"service\", \"name\": \"syslog-ng\", \"start\": 1.72, \"end\": 2.02, \"status\": 0}"
+                        + "]}").getBytes(StandardCharsets.UTF_8)));
+
+        assertTrue(profile.isComplete());
+        assertEquals(5, profile.getPhases().size());
+        assertEquals(Duration.ofMillis(2020), profile.getTotalDuration());
+
+        List<BootPhase> slowest = profile.getSlowestPhases(2);
+        assertEquals(2, slowest.size());
+        assertEquals("/etc/my_init.d/10_setup_syslog_ng.sh", slowest.get(0).getName());
+        assertEquals(Duration.ofMillis(1500), slowest.get(0).getDuration());
+        assertEquals("syslog-ng", slowest.get(1).getName());
+
+        List<BootPhase> problems = profile.getProblemPhases();
+        assertEquals(1, problems.size());
+        assertEquals(BootPhase.Type.SERVICE, problems.get(0).getType());
+        assertEquals("cron", problems.get(0).getName());
+    }
+}
@@ -0,0 +1,34 @@
+package com.github.javister.docker.testing.exec;
+
+import org.junit.jupiter.api.Test;
+import org.testcontainers.containers.output.OutputFrame.OutputType;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class LineDecoderTest {
+
+    @Test
+    void splitLinesAcrossChunks() throws IOException {
+        List<String> lines = new ArrayList<>();
+        LineDecoder decoder = new LineDecoder((type, line) -> lines.add(type + ":" + line));
+        byte[] bytes = "первая\r\nвто".getBytes(StandardCharsets.UTF_8);
+        // Разрезаем посередине многобайтового символа
+        decoder.onOutput(OutputType.STDOUT, Arrays.copyOfRange(bytes, 0, 3));
+        decoder.onOutput(OutputType.STDOUT, Arrays.copyOfRange(bytes, 3, bytes.length));
+        decoder.onOutput(OutputType.STDERR, "error\n".getBytes(StandardCharsets.UTF_8));
+        decoder.onOutput(OutputType.STDOUT, "рая\n\nпоследняя".getBytes(StandardCharsets.UTF_8));
+        decoder.onEnd();
+        assertEquals(Arrays.asList(
+                "STDOUT:первая",
+                "STDERR:error",
+                "STDOUT:вторая",
+                "STDOUT:",
+                "STDOUT:последняя"), lines);
+    }
+}
@@ -0,0 +1,37 @@
+package com.github.javister.docker.testing.image;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CachedImageFromDockerfileTest {
+
+    @Test
+    void hashDependsOnContentOnly() {
+        String first = new CachedImageFromDockerfile("test-app")
+                .withFileFromString("app.txt", "hello")
+                .withFileFromString("Dockerfile", "FROM alpine\nADD app.txt /\n")
+                .getDockerImageName();
+        String reordered = new CachedImageFromDockerfile("test-app")
+                .withFileFromString("Dockerfile", "FROM alpine\nADD app.txt /\n")
+                .withFileFromString("app.txt", "hello")
+                .getDockerImageName();
+        String changed = new CachedImageFromDockerfile("test-app")
+                .withFileFromString("app.txt", "hello!")
+                .withFileFromString("Dockerfile", "FROM alpine\nADD app.txt /\n")
+                .getDockerImageName();
+
+        assertTrue(first.matches("javister-test/test-app:[0-9a-f]{16}"), first);
+        assertEquals(first, reordered);
+        assertNotEquals(first, changed);
+    }
+
+    @Test
+    void buildArgsChangeHash() {
+        CachedImageFromDockerfile image = new CachedImageFromDockerfile("test-app")
+                .withFileFromString("Dockerfile", "FROM alpine\n");
+        String before = image.getDockerImageName();
+        image.withBuildArg("VERSION", "1");
+        assertNotEquals(before, image.getDockerImageName());
+    }
+}
@@ -0,0 +1,26 @@
+package com.github.javister.docker.testing.image;
+
+import com.github.javister.docker.testing.base.JavisterBaseContainer;
+import com.github.javister.docker.testing.base.JavisterBaseContainerImpl;
+import org.junit.jupiter.api.Test;
+import org.testcontainers.junit.jupiter.Container;
+
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ImagePrePullListenerTest {
+
+    @Test
+    void skipFieldsOfNonConcreteTypes() {
+        assertTrue(ImagePrePullListener.findImages(Collections.singleton(SampleTest.class)).isEmpty());
+    }
+
+    @SuppressWarnings("unused")
+    static class SampleTest {
+        @Container
+        static JavisterBaseContainer<?> byInterface;
+        @Container
+        static JavisterBaseContainerImpl<?> byBaseClass;
+    }
+}
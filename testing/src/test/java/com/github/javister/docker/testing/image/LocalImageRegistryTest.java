@@ -0,0 +1,57 @@
+package com.github.javister.docker.testing.image;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.dockerjava.api.model.Image;
+import org.junit.jupiter.api.Test;
+import org.testcontainers.utility.DockerImageName;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LocalImageRegistryTest {
+    private static final String ID = "sha256:0123456789abcdef0123456789abcdef0123456789abcdef0123456789abcdef";
+    private static final DockerImageName NAME = DockerImageName.parse("javister/javister-docker-base:2.0");
+
+    @Test
+    void shortIdMatches() throws IOException {
+        List<Image> images = Collections.singletonList(image(ID, "javister/javister-docker-base:2.0", "<none>:<none>"));
+        LocalImageRegistry registry = new LocalImageRegistry(() -> images);
+        assertTrue(registry.contains("0123456789ab", NAME));
+        assertTrue(registry.contains(ID.toUpperCase().replace("SHA256", "sha256"), NAME));
+        assertFalse(registry.contains("fedcba987654", NAME));
+        assertFalse(registry.contains("0123456789ab", DockerImageName.parse("javister/javister-docker-base:2.1")));
+    }
+
+    @Test
+    void hitsAreCachedAndMissesRefresh() throws IOException {
+        AtomicInteger listings = new AtomicInteger();
+        List<Image> images = new ArrayList<>();
+        LocalImageRegistry registry = new LocalImageRegistry(() -> {
+            listings.incrementAndGet();
+            return images;
+        });
+
+        assertFalse(registry.contains(ID, NAME));
+        assertEquals(1, listings.get());
+
+        images.add(image(ID, "javister/javister-docker-base:2.0"));
+        assertTrue(registry.contains(ID, NAME));
+        assertEquals(2, listings.get());
+
+        assertTrue(registry.contains(ID, NAME));
+        assertEquals(2, listings.get());
+    }
+
+    private static Image image(String id, String... repoTags) throws IOException {
+        ObjectMapper mapper = new ObjectMapper();
+        return mapper.readValue(mapper.createObjectNode()
+                .put("Id", id)
+                .set("RepoTags", mapper.valueToTree(repoTags))
+                .toString(), Image.class);
+    }
+}
@@ -0,0 +1,66 @@
+package com.github.javister.docker.testing.log;
+
+import com.github.javister.docker.testing.log.ContainerLogEvent.Level;
+import org.junit.jupiter.api.Test;
+import org.testcontainers.containers.output.OutputFrame;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JsonLogConsumerTest {
+
+    @Test
+    void parseEvent() {
+        List<ContainerLogEvent> events = new ArrayList<>();
+        new JsonLogConsumer(events::add).accept(frame(
+                "{\"time\":\"2024-05-01T10:00:00+03:00\",\"facility\":\"daemon\",\"level\":\"warning\","
+                        + "\"program\":\"crond\",\"pid\":\"42\",\"message\":\"Привет, \\\"мир\\\"\"}\n"));
+        assertEquals(1, events.size());
+        ContainerLogEvent event = events.get(0);
+        assertEquals("daemon", event.getFacility());
+        assertEquals(Level.WARNING, event.getLevel());
+        assertEquals("crond", event.getProgram());
+        assertEquals(Integer.valueOf(42), event.getPid());
+        assertEquals("Привет, \"мир\"", event.getMessage());
+        assertNotNull(event.getTime());
+    }
+
+    @Test
+    void filterByLevel() {
+        List<ContainerLogEvent> events = new ArrayList<>();
+        new JsonLogConsumer(events::add).withMinLevel(Level.WARNING).accept(frame(
+                "{\"level\":\"info\",\"message\":\"skip\"}\n"
+                        + "{\"level\":\"err\",\"message\":\"keep\"}\n"
+                        + "{\"message\":\"no level\"}\n"));
+        assertEquals(1, events.size());
+        assertEquals("keep", events.get(0).getMessage());
+    }
+
+    @Test
+    void filterByProgramAfterMessage() {
+        List<ContainerLogEvent> events = new ArrayList<>();
+        new JsonLogConsumer(events::add).withPrograms("app").accept(frame(
+                "{\"message\":\"first\",\"program\":\"app\"}\n"
+                        + "{\"message\":\"second\",\"program\":\"other\"}\n"));
+        assertEquals(1, events.size());
+        assertEquals("first", events.get(0).getMessage());
+    }
+
+    @Test
+    void skipNotJsonLines() {
+        List<ContainerLogEvent> events = new ArrayList<>();
+        new JsonLogConsumer(events::add).accept(frame(
+                "*** Running /etc/my_init.d/00_javister_logo.sh...\n"
+                        + "{\"level\":\"info\",\"message\":\"ok\"}\n"
+                        + "{\"level\":\"info\",\"mess\n"));
+        assertEquals(1, events.size());
+        assertEquals("ok", events.get(0).getMessage());
+    }
+
+    private static OutputFrame frame(String text) {
+        return new OutputFrame(OutputFrame.OutputType.STDOUT, text.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,74 @@
+package com.github.javister.docker.testing.log;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LogCaptureTest {
+
+    @Test
+    void matcherFindsOverlappingPatterns() {
+        AhoCorasickMatcher matcher = new AhoCorasickMatcher("he", "she", "his", "hers", "сервис");
+        byte[] text = "ushers запустил сервис".getBytes(StandardCharsets.UTF_8);
+        BitSet found = matcher.findAll(text, 0, text.length);
+        assertEquals(BitSet.valueOf(new long[]{0b11011}), found);
+    }
+
+    @Test
+    void linesSplitAcrossFrames() {
+        LogCapture capture = new LogCapture(1024);
+        append(capture, "first li");
+        append(capture, "ne\r\nsecond line\nthi");
+        assertEquals(Arrays.asList("first line", "second line"), capture.getLines());
+        append(capture, "rd\n");
+        assertEquals(Collections.singletonList("third"), capture.getLines(2, 3));
+        assertEquals(Collections.singletonList("second line"), capture.findLines("cond", "absent"));
+    }
+
+    @Test
+    void oldLinesAreEvicted() {
+        LogCapture capture = new LogCapture(32);
+        for (int i = 0; i < 10; i++) {
+            append(capture, "line " + i + "\n");
+        }
+        assertEquals(10, capture.getLineCount());
+        assertEquals(Arrays.asList("line 5", "line 6", "line 7", "line 8", "line 9"), capture.getLines());
+        assertEquals(5, capture.getFirstLine());
+    }
+
+    @Test
+    void waitForAllPatterns() throws Exception {
+        LogCapture capture = new LogCapture(1024);
+        append(capture, "nginx started\n");
+        CompletableFuture<Boolean> result = CompletableFuture.supplyAsync(() -> {
+            try {
+                return capture.waitForLog(Duration.ofSeconds(10), "nginx started", "postgres ready");
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        Thread.sleep(100);
+        assertFalse(result.isDone());
+        append(capture, "postgres re");
+        append(capture, "ady\n");
+        assertTrue(result.get(10, TimeUnit.SECONDS));
+
+        // Подстроки не ищутся через границу строк
+        assertFalse(capture.waitForLog(capture.getLineCount(), Duration.ofMillis(100), "ready nginx"));
+        append(capture, "ready\nnginx\n");
+        assertFalse(capture.waitForLog(Duration.ofMillis(100), "ready nginx"));
+    }
+
+    private static void append(LogCapture capture, String text) {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        capture.append(bytes, 0, bytes.length);
+    }
+}
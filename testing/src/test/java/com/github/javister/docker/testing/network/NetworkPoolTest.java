@@ -0,0 +1,63 @@
+package com.github.javister.docker.testing.network;
+
+import org.junit.jupiter.api.Test;
+import org.junit.runner.Description;
+import org.junit.runners.model.Statement;
+import org.testcontainers.containers.Network;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NetworkPoolTest {
+
+    @Test
+    void releasedNetworkIsReused() {
+        List<FakeNetwork> created = new ArrayList<>();
+        NetworkPool pool = new NetworkPool(name -> {
+            FakeNetwork network = new FakeNetwork(name + created.size());
+            created.add(network);
+            return network;
+        });
+
+        PooledNetwork first = pool.acquire("external");
+        PooledNetwork concurrent = pool.acquire("external");
+        assertNotEquals(first.getId(), concurrent.getId());
+
+        first.close();
+        first.close();
+        PooledNetwork next = pool.acquire("external");
+        assertEquals("external0", next.getId());
+        assertEquals("internal2", pool.acquire("internal").getId());
+        assertEquals(3, created.size());
+
+        pool.removeAll();
+        created.forEach(network -> assertEquals(1, network.closed.get()));
+    }
+
+    private static class FakeNetwork implements Network {
+        private final String id;
+        private final AtomicInteger closed = new AtomicInteger();
+
+        FakeNetwork(String id) {
+            this.id = id;
+        }
+
+        @Override
+        public String getId() {
+            return id;
+        }
+
+        @Override
+        public void close() {
+            closed.incrementAndGet();
+        }
+
+        @Override
+        public Statement apply(Statement base, Description description) {
+            return base;
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.github.javister.docker.testing.proxy;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PackageCacheProxyTest {
+    private static final String REPOMD = "http://mirror/centos/7/os/x86_64/repodata/repomd.xml";
+
+    private final AtomicInteger upstreamStatus = new AtomicInteger(200);
+    private HttpServer upstream;
+
+    @BeforeEach
+    void startUpstream() throws IOException {
+        // Вышестоящий HTTP прокси, отвечающий на любой запрос заданным статусом
+        upstream = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        upstream.createContext("/", exchange -> {
+            byte[] body = ("repomd " + exchange.getRequestURI()).getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(upstreamStatus.get(), body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        upstream.start();
+    }
+
+    @AfterEach
+    void stopUpstream() {
+        upstream.stop(0);
+    }
+
+    @Test
+    void serveCachedOnUpstreamServerError(@TempDir Path dir) throws IOException {
+        try (PackageCacheProxy proxy = new PackageCacheProxy(dir, 1024 * 1024, upstreamProxy()).start()) {
+            assertEquals("repomd " + REPOMD, fetch(proxy, REPOMD, 200));
+
+            upstreamStatus.set(503);
+            assertEquals("repomd " + REPOMD, fetch(proxy, REPOMD, 200));
+            // Некэшируемые и ещё не скачанные ресурсы передаются с ответом вышестоящего прокси
+            fetch(proxy, "http://mirror/centos/7/os/x86_64/repodata/other-repomd.xml", 503);
+        }
+    }
+
+    private Proxy upstreamProxy() {
+        return new Proxy(Proxy.Type.HTTP, upstream.getAddress());
+    }
+
+    private static String fetch(PackageCacheProxy proxy, String url, int expectedStatus) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection(new Proxy(
+                Proxy.Type.HTTP, new InetSocketAddress(InetAddress.getLoopbackAddress(), proxy.getPort())));
+        try {
+            assertEquals(expectedStatus, connection.getResponseCode());
+            InputStream body = expectedStatus >= 400 ? connection.getErrorStream() : connection.getInputStream();
+            ByteArrayOutputStream content = new ByteArrayOutputStream();
+            if (body != null) {
+                try (InputStream in = body) {
+                    byte[] buffer = new byte[1024];
+                    int read;
+                    while ((read = in.read(buffer)) >= 0) {
+                        content.write(buffer, 0, read);
+                    }
+                }
+            }
+            return content.toString(StandardCharsets.UTF_8.name());
+        } finally {
+            connection.disconnect();
+        }
+    }
+}
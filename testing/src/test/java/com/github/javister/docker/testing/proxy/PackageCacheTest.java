@@ -0,0 +1,59 @@
+package com.github.javister.docker.testing.proxy;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PackageCacheTest {
+
+    @Test
+    void cacheability() {
+        assertTrue(PackageCache.isImmutable(URI.create("http://mirror/centos/7/os/x86_64/Packages/bash-4.2.46.rpm")));
+        assertTrue(PackageCache.isImmutable(URI.create("http://mirror/centos/7/os/x86_64/repodata/"
+                + "6b1a7ce2b9d6ab0a3d8fcb1e4e4e3f0ad1c1c0e1c1f7bb37b1b9b8e3c8a5c0b2-primary.sqlite.bz2")));
+        assertFalse(PackageCache.isImmutable(URI.create("http://mirror/centos/7/os/x86_64/repodata/primary.xml.gz")));
+        assertFalse(PackageCache.isImmutable(URI.create("http://mirror/centos/7/os/x86_64/repodata/abc-comps.xml")));
+        assertTrue(PackageCache.isCacheable(URI.create("http://mirror/centos/7/os/x86_64/repodata/repomd.xml")));
+        assertFalse(PackageCache.isImmutable(URI.create("http://mirror/centos/7/os/x86_64/repodata/repomd.xml")));
+        assertFalse(PackageCache.isCacheable(URI.create("http://mirrorlist.centos.org/?release=7&arch=x86_64")));
+    }
+
+    @Test
+    void sameRpmFromAnotherMirror(@TempDir Path dir) throws IOException {
+        PackageCache cache = new PackageCache(dir, 1024);
+        cache.put(URI.create("http://one/centos/7/os/a.rpm"), content(cache, 10));
+        assertNotNull(cache.get(URI.create("http://two/centos/7/os/a.rpm")));
+        cache.put(URI.create("http://one/centos/7/os/repodata/repomd.xml"), content(cache, 10));
+        assertNull(cache.get(URI.create("http://two/centos/7/os/repodata/repomd.xml")));
+    }
+
+    @Test
+    void evictLeastRecentlyUsed(@TempDir Path dir) throws IOException {
+        PackageCache cache = new PackageCache(dir, 250);
+        URI a = URI.create("http://mirror/a.rpm");
+        URI b = URI.create("http://mirror/b.rpm");
+        URI c = URI.create("http://mirror/c.rpm");
+        cache.put(a, content(cache, 100));
+        cache.put(b, content(cache, 100));
+        assertNotNull(cache.get(a));
+        cache.put(c, content(cache, 100));
+
+        assertNotNull(cache.get(a));
+        assertNull(cache.get(b));
+        assertNotNull(cache.get(c));
+        assertEquals(200, cache.getTotalBytes());
+        assertEquals(200, new PackageCache(dir, 250).getTotalBytes());
+    }
+
+    private static Path content(PackageCache cache, int size) throws IOException {
+        Path temp = cache.createTempFile();
+        Files.write(temp, new byte[size]);
+        return temp;
+    }
+}
@@ -0,0 +1,46 @@
+package com.github.javister.docker.testing.reuse;
+
+import com.github.javister.docker.testing.runit.ServiceState;
+import com.github.javister.docker.testing.runit.ServiceStatus;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ContainerReuseTest {
+
+    @Test
+    void healthyWhenNormallyUpServicesRun() {
+        Map<String, ServiceStatus> services = new HashMap<>();
+        services.put("nginx", status("nginx", ServiceState.RUN, false, true));
+        services.put("cron", status("cron", ServiceState.DOWN, false, false));
+        assertDoesNotThrow(() -> ContainerReuse.checkHealth(services));
+
+        services.put("postgres", status("postgres", ServiceState.RUN, true, true));
+        ContainerReuse.UnhealthyContainerException error = assertThrows(
+                ContainerReuse.UnhealthyContainerException.class,
+                () -> ContainerReuse.checkHealth(services));
+        assertTrue(ContainerReuse.isUnhealthy(new IllegalStateException("start failed", error)));
+        assertFalse(ContainerReuse.isUnhealthy(new IllegalStateException("start failed")));
+    }
+
+    @Test
+    void fingerprintDependsOnEveryPart() {
+        assertEquals(ContainerReuse.fingerprint("image", "env"), ContainerReuse.fingerprint("image", "env"));
+        assertNotEquals(ContainerReuse.fingerprint("image", "env"), ContainerReuse.fingerprint("imagee", "nv"));
+    }
+
+    @Test
+    void idleTimeoutLabel() {
+        assertEquals(Duration.ofMinutes(5), ContainerReuse.idleTimeout("300"));
+        assertEquals(ContainerReuse.DEFAULT_IDLE_TIMEOUT, ContainerReuse.idleTimeout(null));
+        assertEquals(ContainerReuse.DEFAULT_IDLE_TIMEOUT, ContainerReuse.idleTimeout("soon"));
+    }
+
+    private static ServiceStatus status(String name, ServiceState state, boolean paused, boolean normallyUp) {
+        return new ServiceStatus(name, state, null, null, null, paused, normallyUp, normallyUp);
+    }
+}
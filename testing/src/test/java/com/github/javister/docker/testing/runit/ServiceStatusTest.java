@@ -0,0 +1,41 @@
+package com.github.javister.docker.testing.runit;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ServiceStatusTest {
+
+    @Test
+    void parseSnapshot() {
+        // TAI64 метка 1714550400 (2024-05-01T08:00:00Z) + 0.5 с, pid 1234 (0x04d2), want up, run
+        String running = "400000006631f68a" + "1dcd6500" + "d2040000" + "00" + "75" + "00" + "01";
+        String down = "400000006631f68a" + "00000000" + "00000000" + "00" + "64" + "00" + "00";
+        Map<String, ServiceStatus> snapshot = ServiceStatus.parseSnapshot(
+                "1714550410500000000\n"
+                        + "cron u " + running + "\n"
+                        + "syslog-forwarder d " + down + "\n"
+                        + "app u \n");
+
+        ServiceStatus cron = snapshot.get("cron");
+        assertEquals(ServiceState.RUN, cron.getState());
+        assertEquals(Integer.valueOf(1234), cron.getPid());
+        assertEquals(Instant.parse("2024-05-01T08:00:00.5Z"), cron.getSince());
+        assertEquals(Duration.ofSeconds(10), cron.getUptime());
+        assertTrue(cron.isWantUp());
+        assertTrue(cron.isNormallyUp());
+        assertFalse(cron.isPaused());
+
+        ServiceStatus forwarder = snapshot.get("syslog-forwarder");
+        assertEquals(ServiceState.DOWN, forwarder.getState());
+        assertNull(forwarder.getPid());
+        assertFalse(forwarder.isWantUp());
+        assertFalse(forwarder.isNormallyUp());
+
+        assertEquals(ServiceState.UNKNOWN, snapshot.get("app").getState());
+    }
+}
@@ -0,0 +1,53 @@
+package com.github.javister.docker.testing.stand;
+
+import com.github.javister.docker.testing.IllegalTestConfigurationException;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ContainerStandTest {
+
+    @Test
+    void dependentsStopFirst() {
+        Map<String, List<String>> graph = new HashMap<>();
+        graph.put("app", Arrays.asList("db", "mq"));
+        graph.put("web", Collections.singletonList("app"));
+        graph.put("report", Collections.singletonList("db"));
+        graph.put("mq", Collections.singletonList("db"));
+
+        List<List<String>> levels = ContainerStand.stopLevels(
+                Arrays.asList("web", "report"),
+                node -> graph.getOrDefault(node, Collections.emptyList()));
+
+        assertEquals(4, levels.size());
+        assertEquals(Arrays.asList("web", "report"), levels.get(0));
+        assertEquals(Collections.singletonList("app"), levels.get(1));
+        assertEquals(Collections.singletonList("mq"), levels.get(2));
+        assertEquals(Collections.singletonList("db"), levels.get(3));
+    }
+
+    @Test
+    void independentContainersShareLevel() {
+        List<List<String>> levels = ContainerStand.stopLevels(
+                Arrays.asList("a", "b", "c"),
+                node -> Collections.emptyList());
+        assertEquals(1, levels.size());
+        assertEquals(Arrays.asList("a", "b", "c"), levels.get(0));
+    }
+
+    @Test
+    void cycleIsRejected() {
+        Map<String, List<String>> graph = new HashMap<>();
+        graph.put("a", Collections.singletonList("b"));
+        graph.put("b", Collections.singletonList("a"));
+        assertThrows(IllegalTestConfigurationException.class, () -> ContainerStand.stopLevels(
+                Collections.singletonList("a"),
+                graph::get));
+    }
+}
@@ -0,0 +1,64 @@
+package com.github.javister.docker.testing.stand;
+
+import org.junit.jupiter.api.Test;
+import org.testcontainers.lifecycle.Startable;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StandRegistryTest {
+
+    @Test
+    void stopWhenLastUserLeaves() throws Exception {
+        StandRegistry registry = new StandRegistry();
+        FakeContainer container = new FakeContainer();
+        AtomicInteger resets = new AtomicInteger();
+
+        registry.acquire(container, it -> resets.incrementAndGet(), false);
+        registry.acquire(container, it -> resets.incrementAndGet(), false);
+        registry.release(container);
+        assertEquals(0, container.stops.get());
+        registry.release(container);
+
+        assertEquals(1, container.starts.get());
+        assertEquals(1, container.stops.get());
+        assertEquals(0, resets.get());
+    }
+
+    @Test
+    void keptAliveContainerIsResetBetweenUsers() throws Exception {
+        StandRegistry registry = new StandRegistry();
+        FakeContainer container = new FakeContainer();
+        AtomicInteger resets = new AtomicInteger();
+
+        registry.acquire(container, it -> resets.incrementAndGet(), true);
+        registry.release(container);
+        registry.acquire(container, it -> resets.incrementAndGet(), true);
+        registry.release(container);
+        registry.acquire(container, it -> resets.incrementAndGet(), true);
+        registry.release(container);
+
+        assertEquals(1, container.starts.get());
+        assertEquals(0, container.stops.get());
+        assertEquals(2, resets.get());
+
+        registry.stopKeptAlive();
+        assertEquals(1, container.stops.get());
+    }
+
+    private static class FakeContainer implements Startable {
+        private final AtomicInteger starts = new AtomicInteger();
+        private final AtomicInteger stops = new AtomicInteger();
+
+        @Override
+        public void start() {
+            starts.incrementAndGet();
+        }
+
+        @Override
+        public void stop() {
+            stops.incrementAndGet();
+        }
+    }
+}
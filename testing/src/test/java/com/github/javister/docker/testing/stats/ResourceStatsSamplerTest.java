@@ -0,0 +1,68 @@
+package com.github.javister.docker.testing.stats;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.dockerjava.api.model.Statistics;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResourceStatsSamplerTest {
+    private static final Instant START = Instant.parse("2024-05-01T10:00:00Z");
+
+    @Test
+    void sampleFromStatistics() throws IOException {
+        Statistics statistics = new ObjectMapper().readValue("{"
+                + "\"cpu_stats\":{\"cpu_usage\":{\"total_usage\":3000},\"system_cpu_usage\":20000,\"online_cpus\":4},"
+                + "\"precpu_stats\":{\"cpu_usage\":{\"total_usage\":1000},\"system_cpu_usage\":10000},"
+                + "\"memory_stats\":{\"usage\":1000,\"limit\":4000,\"stats\":{\"inactive_file\":200}},"
+                + "\"blkio_stats\":{\"io_service_bytes_recursive\":["
+                + "{\"op\":\"Read\",\"value\":10},{\"op\":\"Write\",\"value\":20},{\"op\":\"read\",\"value\":5}]},"
+                + "\"networks\":{\"eth0\":{\"rx_bytes\":100,\"tx_bytes\":50},\"eth1\":{\"rx_bytes\":1,\"tx_bytes\":2}}"
+                + "}", Statistics.class);
+        ResourceSample sample = ResourceSample.from(START, statistics);
+        assertEquals(80.0, sample.getCpuPercent(), 0.001);
+        assertEquals(800, sample.getMemoryUsage());
+        assertEquals(4000, sample.getMemoryLimit());
+        assertEquals(15, sample.getBlockRead());
+        assertEquals(20, sample.getBlockWrite());
+        assertEquals(101, sample.getNetworkRx());
+        assertEquals(52, sample.getNetworkTx());
+    }
+
+    @Test
+    void ringKeepsLatestSamples() {
+        ResourceStatsSampler sampler = new ResourceStatsSampler("test", 3);
+        for (int i = 0; i < 5; i++) {
+            sampler.add(sample(i, i, i * 10));
+        }
+        List<ResourceSample> samples = sampler.getSamples();
+        assertEquals(3, samples.size());
+        assertEquals(START.plusSeconds(2), samples.get(0).getTime());
+        assertEquals(START.plusSeconds(4), samples.get(2).getTime());
+        assertEquals(2, sampler.getSamples(START.plusSeconds(3)).size());
+    }
+
+    @Test
+    void summary() {
+        ResourceStatsSampler sampler = new ResourceStatsSampler("test", 10);
+        sampler.add(sample(0, 10, 100));
+        sampler.add(sample(1, 50, 300));
+        sampler.add(sample(2, 30, 200));
+        ResourceSummary summary = sampler.getSummary(START.plusSeconds(1));
+        assertEquals(2, summary.getSampleCount());
+        assertEquals(1000, summary.getDuration().toMillis());
+        assertEquals(50.0, summary.getPeakCpuPercent(), 0.001);
+        assertEquals(40.0, summary.getAverageCpuPercent(), 0.001);
+        assertEquals(300, summary.getPeakMemoryUsage());
+        assertEquals(250, summary.getAverageMemoryUsage());
+        assertEquals(1000, summary.getNetworkRx());
+    }
+
+    private static ResourceSample sample(int second, double cpu, long memory) {
+        return new ResourceSample(START.plusSeconds(second), cpu, memory, 0, 0, 0, second * 1000L, 0);
+    }
+}
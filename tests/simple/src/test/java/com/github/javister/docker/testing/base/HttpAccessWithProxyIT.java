@@ -1,6 +1,9 @@
 package com.github.javister.docker.testing.base;
 
 import com.github.dockerjava.api.command.InspectContainerResponse;
+import com.github.javister.docker.testing.image.CachedImageFromDockerfile;
+import com.github.javister.docker.testing.network.NetworkPool;
+import com.github.javister.docker.testing.network.PooledNetwork;
 import io.qameta.allure.Description;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
@@ -15,10 +18,8 @@ import org.slf4j.LoggerFactory;
 import org.testcontainers.containers.Container.ExecResult;
 import org.testcontainers.containers.GenericContainer;
 import org.testcontainers.containers.MockServerContainer;
-import org.testcontainers.containers.Network;
 import org.testcontainers.containers.output.Slf4jLogConsumer;
 import org.testcontainers.containers.wait.strategy.Wait;
-import org.testcontainers.images.builder.ImageFromDockerfile;
 import org.testcontainers.junit.jupiter.Container;
 import org.testcontainers.junit.jupiter.Testcontainers;
 
@@ -34,8 +35,10 @@ import static org.mockserver.model.HttpRequest.request;
 @Testcontainers
 public class HttpAccessWithProxyIT {
     private static final Logger LOGGER = LoggerFactory.getLogger(HttpAccessWithProxyIT.class);
-    private static final Network externalNetwork = Network.newNetwork();
-    private static final Network internalNetwork = Network.newNetwork();
+    @Container
+    private static final PooledNetwork externalNetwork = NetworkPool.getInstance().acquire("external");
+    @Container
+    private static final PooledNetwork internalNetwork = NetworkPool.getInstance().acquire("internal");
 
     private static final Map<String, String> ENV_MAP = new HashMap<>();
 
@@ -52,7 +55,7 @@ public class HttpAccessWithProxyIT {
     @Container
     @SuppressWarnings("unused")
     private static final GenericContainer<?> mserver = new GenericContainer<>(
-            new ImageFromDockerfile()
+            new CachedImageFromDockerfile("test-app")
                     .withFileFromFile(
                             "app.jar",
                             new File(JavisterBaseContainer.getTestPath(HttpAccessWithProxyIT.class) + "/test-app.jar")
@@ -1,5 +1,6 @@
 package com.github.javister.docker.testing.base;
 
+import com.github.javister.docker.testing.image.CachedImageFromDockerfile;
 import io.qameta.allure.Description;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
@@ -10,7 +11,6 @@ import org.testcontainers.containers.GenericContainer;
 import org.testcontainers.containers.Network;
 import org.testcontainers.containers.output.Slf4jLogConsumer;
 import org.testcontainers.containers.wait.strategy.Wait;
-import org.testcontainers.images.builder.ImageFromDockerfile;
 import org.testcontainers.junit.jupiter.Container;
 import org.testcontainers.junit.jupiter.Testcontainers;
 
@@ -25,7 +25,7 @@ public class HttpAccessWithoutProxyIT {
     @Container
     @SuppressWarnings("unused")
     private static final GenericContainer<?> mserver = new GenericContainer<>(
-            new ImageFromDockerfile()
+            new CachedImageFromDockerfile("test-app")
                     .withFileFromFile(
                             "app.jar",
                             new File(JavisterBaseContainer.getTestPath(SimpleImageTests.class) + "/test-app.jar")
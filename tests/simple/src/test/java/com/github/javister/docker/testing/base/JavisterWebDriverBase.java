@@ -1,11 +1,11 @@
 package com.github.javister.docker.testing.base;
 
+import com.github.javister.docker.testing.image.CachedImageFromDockerfile;
 import org.junit.jupiter.api.Assertions;
 import org.openqa.selenium.By;
 import org.openqa.selenium.WebDriver;
 import org.testcontainers.containers.Network;
 import org.testcontainers.containers.wait.strategy.Wait;
-import org.testcontainers.images.builder.ImageFromDockerfile;
 import org.testcontainers.junit.jupiter.Container;
 
 import java.io.File;
@@ -16,7 +16,7 @@ public class JavisterWebDriverBase {
     @Container
     static final JavisterBaseContainer<?> mserver = new JavisterBaseContainerImpl<>(
             JavisterWebDriverIT.class,
-            new ImageFromDockerfile()
+            new CachedImageFromDockerfile("test-app")
                     .withFileFromFile(
                             "app.jar",
                             new File(JavisterBaseContainer.getTestPath(JavisterWebDriverIT.class) + "/test-app.jar")